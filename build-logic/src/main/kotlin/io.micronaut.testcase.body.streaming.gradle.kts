@@ -0,0 +1,12 @@
+/**
+ * This plugin adds the incremental JSON parser of the body-streaming variant, and jackson-core for it. The parser is
+ * used independently of the json variant, which still serializes the response.
+ */
+plugins {
+    id("io.micronaut.testcase")
+}
+
+dependencies {
+    implementation(project(":test-case-shared"))
+    implementation("com.fasterxml.jackson.core:jackson-core")
+}
@@ -0,0 +1,12 @@
+/**
+ * This plugin upgrades netty to a version with the AdaptiveByteBufAllocator (4.1.111+), for the adaptive-allocator
+ * tuning. The other variants keep the netty version of the micronaut release, so that they stay comparable to the
+ * other frameworks and to earlier results.
+ */
+plugins {
+    id("io.micronaut.testcase")
+}
+
+dependencies {
+    implementation(platform("io.netty:netty-bom:4.1.111.Final"))
+}
@@ -0,0 +1,10 @@
+/**
+ * This plugin adds reactor for the Mono return type of the threading-mono variant.
+ */
+plugins {
+    id("io.micronaut.testcase")
+}
+
+dependencies {
+    implementation("io.micronaut.reactor:micronaut-reactor")
+}
@@ -37,7 +37,12 @@ abstract class AppVariants(val settings: Settings) {
                 setBuildDir(File(projectDir, "build/${path}"))
                 project.plugins.withId("java") {
                     project.extensions.findByType(JavaPluginExtension::class.java)?.let { java ->
-                        variantNames.forEach { variantName ->
+                        // "a+b" directories hold sources for a combination of two variants, e.g. a controller
+                        // that only applies when another dimension does not replace it
+                        val pairNames = variantNames.flatMapIndexed { i, first ->
+                            variantNames.drop(i + 1).map { second -> "$first+$second" }
+                        }
+                        (variantNames + pairNames).forEach { variantName ->
                             java.sourceSets.all {
                                 this.java.srcDir("src/$name/variants/$variantName/java")
                                 this.resources.srcDir("src/$name/variants/$variantName/resources")
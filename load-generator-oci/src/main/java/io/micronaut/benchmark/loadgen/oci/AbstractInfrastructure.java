@@ -179,7 +179,7 @@ public abstract class AbstractInfrastructure implements AutoCloseable {
                 .launch();
     }
 
-    protected final SshFactory.Relay relay() throws Exception {
+    protected final synchronized SshFactory.Relay relay() throws Exception {
         if (relay == null) {
             relayServerInstance.awaitStartup();
 
@@ -0,0 +1,30 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import java.nio.file.Path;
+
+/**
+ * Infrastructure that benchmark runs are executed on. {@link Infrastructure} provisions a network and instances on
+ * OCI, {@link LocalInfrastructure} runs everything on this machine. The implementation is selected with
+ * {@code suite.backend}.
+ */
+public interface BenchmarkInfrastructure extends AutoCloseable {
+    void run(Path outputDirectory, FrameworkRun run, LoadVariant loadVariant, PhaseTracker.PhaseUpdater progress) throws Exception;
+
+    interface Factory {
+        /**
+         * Create the infrastructure for one repetition (or one run, for
+         * {@link SuiteRunner.InfrastructureMode#INFRASTRUCTURE_PER_RUN}).
+         */
+        BenchmarkInfrastructure create(int repetition, Path logDirectory);
+
+        /**
+         * Number of cores available to the benchmark server.
+         */
+        int serverCoreCount();
+
+        /**
+         * Remove anything left behind by previous suite runs.
+         */
+        void clean();
+    }
+}
@@ -8,6 +8,7 @@ public enum BenchmarkPhase {
     DEPLOYING_OS,
     INSTALLING_SOFTWARE,
     DEPLOYING_SERVER,
+    TRAINING,
     BUILDING_PGO_IMAGE,
     PGO,
     BUILDING_IMAGE,
@@ -176,7 +176,7 @@ public class Compute {
 
         private com.oracle.bmc.core.model.Instance.LifecycleState getLifecycleState() {
             try {
-                return Infrastructure.retry(() -> computeClient.forRegion(location).getInstance(
+                return AbstractInfrastructure.retry(() -> computeClient.forRegion(location).getInstance(
                                 GetInstanceRequest.builder()
                                         .instanceId(id)
                                         .build())
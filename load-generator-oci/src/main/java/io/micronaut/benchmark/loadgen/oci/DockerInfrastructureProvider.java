@@ -0,0 +1,352 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.bind.annotation.Bindable;
+import jakarta.inject.Singleton;
+import org.apache.sshd.client.session.ClientSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link InfrastructureProvider} that launches instances as docker (or podman) containers on this machine. Each
+ * network is a bridge network with its own {@code 10.x.0.0/16} subnet, and the containers are reached over SSH at
+ * their container IP, so this needs a container runtime whose containers are routable from the host (rootful docker
+ * or podman on linux).
+ * <p>
+ * Runs treat containers like provisioned instances, so they get the capabilities those runs need: perf events and
+ * ptrace for the async profiler, checkpoint/restore for CRaC, and the io_uring syscalls that the default seccomp
+ * profile blocks. The async profiler setup also changes {@code kernel.*} sysctls, which only works with
+ * {@link DockerConfiguration#privileged()} and then applies to the host kernel.
+ * <p>
+ * The image must provide an {@code opc} user with passwordless {@code sudo} and run an SSH server, like the OCI
+ * images. If no image is configured, one is built from {@code instance.Dockerfile}.
+ */
+@Singleton
+@Requires(property = "suite.backend", value = "docker")
+public final class DockerInfrastructureProvider implements InfrastructureProvider {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerInfrastructureProvider.class);
+
+    private static final String LABEL = "micronaut-benchmark";
+    private static final String DEFAULT_IMAGE = "micronaut-benchmark-instance";
+    /**
+     * Second octet of the subnet of the first network. The OCI layout uses {@code 10.0.0.0/16}, which we can't use
+     * for more than one network.
+     */
+    private static final int FIRST_NETWORK = 100;
+    /**
+     * Number of networks that can exist at the same time, until the second octet reaches 255.
+     */
+    private static final int MAX_NETWORKS = 256 - FIRST_NETWORK;
+
+    private final DockerConfiguration config;
+    private final Map<String, DockerConfiguration.InstanceType> instanceTypes;
+    private final SshFactory sshFactory;
+    /**
+     * Indices of the networks that currently exist. Indices are reused after their network is closed.
+     */
+    private final BitSet networkIndices = new BitSet(MAX_NETWORKS);
+
+    private String image;
+
+    DockerInfrastructureProvider(DockerConfiguration config, Map<String, DockerConfiguration.InstanceType> instanceTypes, SshFactory sshFactory) {
+        this.config = config;
+        this.instanceTypes = instanceTypes;
+        this.sshFactory = sshFactory;
+    }
+
+    private String docker(String... args) throws IOException {
+        return docker(null, args);
+    }
+
+    private String docker(@Nullable InputStream stdin, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(config.command());
+        command.addAll(List.of(args));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .start();
+        try (OutputStream in = process.getOutputStream()) {
+            if (stdin != null) {
+                stdin.transferTo(in);
+            }
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int status;
+        try {
+            status = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            throw new InterruptedIOException();
+        }
+        if (status != 0) {
+            throw new IOException(String.join(" ", command) + " failed with exit status " + status + ": " + output);
+        }
+        return output.trim();
+    }
+
+    private synchronized String image() throws IOException {
+        if (image == null) {
+            if (config.image() == null) {
+                LOG.info("Building instance image {}", DEFAULT_IMAGE);
+                try (InputStream dockerfile = DockerInfrastructureProvider.class.getResourceAsStream("/instance.Dockerfile")) {
+                    docker(dockerfile, "build", "--tag", DEFAULT_IMAGE, "-");
+                }
+                image = DEFAULT_IMAGE;
+            } else {
+                image = config.image();
+            }
+        }
+        return image;
+    }
+
+    @Override
+    public Network createNetwork(int repetition, Path logDirectory, PhaseTracker.PhaseUpdater progress) throws Exception {
+        try {
+            Files.createDirectories(logDirectory);
+        } catch (FileAlreadyExistsException ignored) {
+        }
+
+        progress.update(BenchmarkPhase.SETTING_UP_NETWORK);
+        int index = allocateNetworkIndex();
+        String name = LABEL + "-" + index;
+        try {
+            docker("network", "create", "--label", LABEL, "--subnet", "10." + (FIRST_NETWORK + index) + ".0.0/16", name);
+        } catch (Exception e) {
+            releaseNetworkIndex(index);
+            throw e;
+        }
+        progress.update(BenchmarkPhase.SETTING_UP_INSTANCES);
+        return new DockerNetwork(name, index);
+    }
+
+    private int allocateNetworkIndex() {
+        synchronized (networkIndices) {
+            int index = networkIndices.nextClearBit(0);
+            if (index >= MAX_NETWORKS) {
+                throw new IllegalStateException("More than " + MAX_NETWORKS + " concurrent networks");
+            }
+            networkIndices.set(index);
+            return index;
+        }
+    }
+
+    private void releaseNetworkIndex(int index) {
+        synchronized (networkIndices) {
+            networkIndices.clear(index);
+        }
+    }
+
+    @Override
+    public int coreCount(String instanceType) {
+        return (int) Math.ceil(instanceTypes.get(instanceType).cpus());
+    }
+
+    @Override
+    public void clean() {
+        try {
+            String containers = docker("ps", "--all", "--quiet", "--filter", "label=" + LABEL);
+            if (!containers.isEmpty()) {
+                List<String> args = new ArrayList<>(List.of("rm", "--force"));
+                args.addAll(List.of(containers.split("\\s+")));
+                docker(args.toArray(new String[0]));
+            }
+            String networks = docker("network", "ls", "--quiet", "--filter", "label=" + LABEL);
+            if (!networks.isEmpty()) {
+                List<String> args = new ArrayList<>(List.of("network", "rm"));
+                args.addAll(List.of(networks.split("\\s+")));
+                docker(args.toArray(new String[0]));
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to remove leftover containers and networks", e);
+        }
+    }
+
+    private final class DockerNetwork implements Network {
+        private final String name;
+        private final int index;
+
+        DockerNetwork(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        @Override
+        public Instance launch(String instanceType, String privateIp) throws Exception {
+            DockerConfiguration.InstanceType type = Objects.requireNonNull(instanceTypes.get(instanceType), instanceType);
+            String ip = address(privateIp);
+            String containerName = name + "-" + ip;
+            List<String> args = new ArrayList<>(List.of(
+                    "run", "--detach",
+                    "--label", LABEL,
+                    "--name", containerName,
+                    "--hostname", instanceType,
+                    "--network", name,
+                    "--ip", ip,
+                    "--cpus", String.valueOf(type.cpus()),
+                    "--memory", type.memory()
+            ));
+            if (config.privileged()) {
+                args.add("--privileged");
+            } else {
+                args.addAll(List.of(
+                        "--cap-add", "PERFMON",
+                        "--cap-add", "SYS_PTRACE",
+                        "--cap-add", "CHECKPOINT_RESTORE",
+                        "--security-opt", "seccomp=unconfined"
+                ));
+            }
+            if (type.cpuset() != null) {
+                args.add("--cpuset-cpus");
+                args.add(type.cpuset());
+            }
+            args.add(image());
+            docker(args.toArray(new String[0]));
+            Container container = new Container(containerName, ip);
+            try {
+                docker(new ByteArrayInputStream(sshFactory.publicKey().getBytes(StandardCharsets.UTF_8)),
+                        "exec", "--interactive", "--user", "root", containerName,
+                        "sh", "-c", "mkdir -p ~opc/.ssh && cat >> ~opc/.ssh/authorized_keys && chown -R opc:opc ~opc/.ssh && chmod 700 ~opc/.ssh && chmod 600 ~opc/.ssh/authorized_keys");
+            } catch (Exception e) {
+                container.close();
+                throw e;
+            }
+            return container;
+        }
+
+        @Override
+        public String address(String privateIp) {
+            if (!privateIp.startsWith("10.0.")) {
+                throw new IllegalArgumentException("Not in the network range: " + privateIp);
+            }
+            return "10." + (FIRST_NETWORK + index) + "." + privateIp.substring("10.0.".length());
+        }
+
+        @Override
+        public int coreCount(String instanceType) {
+            return DockerInfrastructureProvider.this.coreCount(instanceType);
+        }
+
+        @Override
+        public void openFirewallPorts(ClientSession session, OutputListener... log) {
+            // containers on a bridge network have no firewall
+        }
+
+        @Override
+        public void terminateAsync() {
+        }
+
+        @Override
+        public void close() throws Exception {
+            LOG.info("Removing network {}", name);
+            docker("network", "rm", name);
+            // only reuse the subnet once the network is gone, a failed removal is left to clean()
+            releaseNetworkIndex(index);
+        }
+    }
+
+    private final class Container implements Instance {
+        private final String name;
+        /**
+         * Container IP, which the host can reach directly.
+         */
+        private final String ip;
+        private Process removal;
+
+        Container(String name, String ip) {
+            this.name = name;
+            this.ip = ip;
+        }
+
+        @Override
+        public void awaitStartup() throws Exception {
+            for (int i = 0; i < 60; i++) {
+                String state = docker("inspect", "--format", "{{.State.Status}}", name);
+                switch (state) {
+                    case "running" -> {
+                        return;
+                    }
+                    case "created" -> LOG.info("Waiting for container {} to start...", name);
+                    default -> throw new IllegalStateException("Unexpected state for container " + name + ": " + state);
+                }
+                TimeUnit.SECONDS.sleep(1);
+            }
+            throw new IOException("Container " + name + " did not start");
+        }
+
+        @Override
+        public ClientSession connect() throws Exception {
+            return sshFactory.connect(null, ip, null);
+        }
+
+        @Override
+        public synchronized void terminateAsync() {
+            if (removal != null) {
+                return;
+            }
+            LOG.info("Removing container {}", name);
+            try {
+                removal = new ProcessBuilder(config.command(), "rm", "--force", name)
+                        .redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                        .start();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        @Override
+        public synchronized void close() throws Exception {
+            terminateAsync();
+            if (removal.waitFor() != 0) {
+                LOG.warn("Failed to remove container {}. Cleanup will happen after all benchmarks complete.", name);
+            }
+        }
+    }
+
+    /**
+     * @param command The container CLI, {@code docker} or {@code podman}
+     * @param image The image to launch instances from, or {@code null} to build one from {@code instance.Dockerfile}
+     * @param privileged Run the containers with {@code --privileged} instead of adding only the capabilities the runs need
+     */
+    @ConfigurationProperties("docker")
+    public record DockerConfiguration(
+            String command,
+            @Nullable String image,
+            @Bindable(defaultValue = "false")
+            boolean privileged,
+            List<InstanceType> instanceTypes
+    ) {
+
+        /**
+         * @param cpus CPU quota of the container ({@code --cpus})
+         * @param cpuset CPUs the container is pinned to ({@code --cpuset-cpus}), or {@code null}
+         * @param memory Memory limit of the container ({@code --memory}), e.g. {@code 24g}
+         */
+        @EachProperty("instance-types")
+        public record InstanceType(
+                float cpus,
+                @Nullable String cpuset,
+                String memory
+        ) {
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package io.micronaut.benchmark.loadgen.oci;
 
 import io.micronaut.core.annotation.Nullable;
-import org.apache.sshd.client.session.ClientSession;
 
 import java.nio.file.Path;
 
@@ -13,8 +12,16 @@ public interface FrameworkRun {
     @Nullable
     Object parameters();
 
+    /**
+     * Whether the server parses the /search/find body incrementally. The load generator then sends the needle before
+     * the haystack, so that the server can answer without buffering the whole document.
+     */
+    default boolean needleFirst() {
+        return false;
+    }
+
     void setupAndRun(
-            ClientSession benchmarkServerClient,
+            ServerHost benchmarkServer,
             Path outputDirectory,
             OutputListener.Write log,
             BenchmarkClosure benchmarkClosure,
@@ -24,5 +31,13 @@ public interface FrameworkRun {
         void benchmark(PhaseTracker.PhaseUpdater progress) throws Exception;
 
         void pgoLoad(PhaseTracker.PhaseUpdater progress) throws Exception;
+
+        /**
+         * Load for a startup run, applied right after the server answered its first request.
+         *
+         * @param launchedAt Epoch millis (server clock) when the server process was launched
+         * @param firstResponseAt Epoch millis (server clock) of the first successful response
+         */
+        void startup(PhaseTracker.PhaseUpdater progress, long launchedAt, long firstResponseAt) throws Exception;
     }
 }
@@ -3,13 +3,19 @@ package io.micronaut.benchmark.loadgen.oci;
 import jakarta.inject.Singleton;
 
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Singleton
 public class HelidonNimaRunSet implements FrameworkRunSet {
+    private final HelidonVariantConfiguration helidonVariantConfiguration;
+    private final TlsVariantConfiguration tlsVariantConfiguration;
     private final JavaRunFactory javaRunFactory;
 
-    public HelidonNimaRunSet(JavaRunFactory javaRunFactory) {
+    public HelidonNimaRunSet(HelidonVariantConfiguration helidonVariantConfiguration, TlsVariantConfiguration tlsVariantConfiguration, JavaRunFactory javaRunFactory) {
+        this.helidonVariantConfiguration = helidonVariantConfiguration;
+        this.tlsVariantConfiguration = tlsVariantConfiguration;
         this.javaRunFactory = javaRunFactory;
     }
 
@@ -17,7 +23,24 @@ public class HelidonNimaRunSet implements FrameworkRunSet {
     public List<? extends FrameworkRun> getRuns() {
         return javaRunFactory.createJavaRuns("helidon-nima")
                 .shadowJar(Path.of("test-case-helidon-nima/build/libs/test-case-helidon-nima-all.jar"))
+                .runtimeVariants("helidon", helidonVariantConfiguration.runtimeVariants())
+                .runtimeVariants("tls", tlsVariants())
+                .needleFirst(runtimeConfiguration -> "streaming".equals(runtimeConfiguration.get("body")))
                 .boundOn("Helidon bound")
                 .build().toList();
     }
+
+    /**
+     * Helidon only supports the JDK TLS provider, so we skip the other providers instead of running the same
+     * configuration multiple times.
+     */
+    private Map<String, List<String>> tlsVariants() {
+        Map<String, List<String>> variants = tlsVariantConfiguration.runtimeVariants();
+        if (variants == null || !variants.containsKey("provider")) {
+            return variants;
+        }
+        Map<String, List<String>> filtered = new LinkedHashMap<>(variants);
+        filtered.remove("provider");
+        return filtered;
+    }
 }
@@ -4,7 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.hyperfoil.api.config.Benchmark;
 import io.hyperfoil.api.config.BenchmarkBuilder;
-import io.hyperfoil.api.config.ScenarioBuilder;
+import io.hyperfoil.api.config.PhaseBuilder;
 import io.hyperfoil.api.statistics.StatisticsSummary;
 import io.hyperfoil.client.RestClient;
 import io.hyperfoil.client.RestClientException;
@@ -12,12 +12,13 @@ import io.hyperfoil.controller.Client;
 import io.hyperfoil.controller.model.RequestStatisticsResponse;
 import io.hyperfoil.controller.model.RequestStats;
 import io.hyperfoil.core.util.ConstantBytesGenerator;
-import io.hyperfoil.http.api.HttpMethod;
-import io.hyperfoil.http.config.ConnectionStrategy;
 import io.hyperfoil.http.config.HttpPluginBuilder;
 import io.hyperfoil.http.statistics.HttpStats;
+import io.hyperfoil.http.handlers.RangeStatusValidator;
+import io.hyperfoil.http.steps.HttpRequestStepBuilder;
 import io.hyperfoil.http.steps.HttpStepCatalog;
 import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.scheduling.TaskExecutors;
 import io.vertx.core.Vertx;
 import io.vertx.core.http.HttpClosedException;
@@ -33,12 +34,15 @@ import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
 import java.io.InterruptedIOException;
+import java.net.ConnectException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,6 +54,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
 
 public class HyperfoilRunner implements AutoCloseable {
     private static final Logger LOG = LoggerFactory.getLogger(HyperfoilRunner.class);
@@ -61,34 +66,63 @@ public class HyperfoilRunner implements AutoCloseable {
     private static final String AGENT_INSTANCE_TYPE = "hyperfoil-agent";
 
     private final Factory factory;
-    private final CompletableFuture<SshFactory.Relay> relay = new CompletableFuture<>();
     private final CompletableFuture<Client> client = new CompletableFuture<>();
     private final CompletableFuture<Void> terminate = new CompletableFuture<>();
     private final Path logDirectory;
+    /**
+     * The network the cluster runs in, or {@code null} if hyperfoil runs locally.
+     */
+    @Nullable
+    private final InfrastructureProvider.Network network;
+    /**
+     * The cluster instances, or {@code null} if hyperfoil runs locally.
+     */
+    @Nullable
     private final HyperfoilInstances instances;
+    /**
+     * The local configuration, or {@code null} if hyperfoil runs in a {@link #network}.
+     */
+    @Nullable
+    private final LocalInfrastructure.LocalConfiguration local;
+    private final String serverIp;
     private final Future<?> worker;
-    private final List<Compute.Instance> computeInstances = new CopyOnWriteArrayList<>();
-    private ClientSession controllerSession;
-    private final CompletableFuture<ResilientSshPortForwarder> controllerPortForward = new CompletableFuture<>();
+    private final List<InfrastructureProvider.Instance> computeInstances = new CopyOnWriteArrayList<>();
+    private ServerHost controllerHost;
+    /**
+     * Called when a request to the controller fails, before it is retried.
+     */
+    private final CompletableFuture<Runnable> onControllerFailure = new CompletableFuture<>();
 
     static {
         // 30s is too short for agent log download
         System.setProperty("io.hyperfoil.cli.request.timeout", "60000");
     }
 
-    private HyperfoilRunner(Factory factory, Path logDirectory, OciLocation location, String privateSubnetId) throws Exception {
+    private HyperfoilRunner(Factory factory, Path logDirectory, @Nullable InfrastructureProvider.Network network, @Nullable LocalInfrastructure.LocalConfiguration local) throws Exception {
         this.factory = factory;
         this.logDirectory = logDirectory;
+        this.network = network;
+        this.local = local;
 
         try {
             Files.createDirectories(logDirectory);
         } catch (FileAlreadyExistsException ignored) {}
 
-        // fail fast if we can't create the instances
-        instances = createInstances(location, privateSubnetId);
+        if (network != null) {
+            serverIp = network.address(Infrastructure.SERVER_IP);
+            // fail fast if we can't create the instances
+            instances = createInstances(network);
+        } else {
+            serverIp = LocalInfrastructure.SERVER_IP;
+            instances = null;
+        }
         worker = factory.executor.submit(MdcTracker.copyMdc(() -> {
             try (AutoCloseable ignored = this::terminateAndWait) {
-                deploy();
+                if (network != null) {
+                    deploy();
+                } else {
+                    deployLocal(local);
+                }
             } catch (InterruptedException | InterruptedIOException ignored) {
             } catch (Exception e) {
                 LOG.error("Failed to deploy hyperfoil server", e);
@@ -98,17 +132,13 @@ public class HyperfoilRunner implements AutoCloseable {
         }));
     }
 
-    private HyperfoilInstances createInstances(OciLocation location, String privateSubnetId) throws Exception {
-        Compute.Instance hyperfoilController = factory.compute.builder("hyperfoil-controller", location, privateSubnetId)
-                .privateIp(HYPERFOIL_CONTROLLER_IP)
-                .launch();
+    private HyperfoilInstances createInstances(InfrastructureProvider.Network network) throws Exception {
+        InfrastructureProvider.Instance hyperfoilController = network.launch("hyperfoil-controller", HYPERFOIL_CONTROLLER_IP);
         try {
             computeInstances.add(hyperfoilController);
-            List<Compute.Instance> agents = new ArrayList<>();
+            List<InfrastructureProvider.Instance> agents = new ArrayList<>();
             for (int i = 0; i < factory.config.agentCount; i++) {
-                Compute.Instance instance = factory.compute.builder(AGENT_INSTANCE_TYPE, location, privateSubnetId)
-                        .privateIp(agentIp(i))
-                        .launch();
+                InfrastructureProvider.Instance instance = network.launch(AGENT_INSTANCE_TYPE, agentIp(i));
                 agents.add(instance);
                 computeInstances.add(instance);
             }
@@ -124,10 +154,10 @@ public class HyperfoilRunner implements AutoCloseable {
     }
 
     private void terminateAndWait() throws Exception {
-        for (Compute.Instance computeInstance : computeInstances) {
+        for (InfrastructureProvider.Instance computeInstance : computeInstances) {
             computeInstance.terminateAsync();
         }
-        for (Compute.Instance computeInstance : computeInstances) {
+        for (InfrastructureProvider.Instance computeInstance : computeInstances) {
             computeInstance.close();
         }
     }
@@ -135,12 +165,11 @@ public class HyperfoilRunner implements AutoCloseable {
     private void deploy() throws Exception {
         instances.controller.awaitStartup();
 
-        SshFactory.Relay relay = this.relay.get();
-
         try (
                 OutputListener.Write log = new OutputListener.Write(Files.newOutputStream(logDirectory.resolve("hyperfoil.log")));
-                ClientSession controllerSession = factory.sshFactory.connect(instances.controller, HYPERFOIL_CONTROLLER_IP, relay)) {
-            this.controllerSession = controllerSession;
+                SshServerHost controllerHost = new SshServerHost(instances.controller.connect())) {
+            ClientSession controllerSession = controllerHost.session();
+            this.controllerHost = controllerHost;
 
             List<Callable<Void>> setupTasks = new ArrayList<>();
 
@@ -153,13 +182,10 @@ public class HyperfoilRunner implements AutoCloseable {
                 return null;
             });
 
-            for (int i = 0; i < instances.agents.size(); i++) {
-                Compute.Instance agent = instances.agents.get(i);
-
-                String agentIp = agentIp(i);
+            for (InfrastructureProvider.Instance agent : instances.agents) {
                 setupTasks.add(() -> {
                     agent.awaitStartup();
-                    try (ClientSession agentSession = factory.sshFactory.connect(agent, agentIp, relay)) {
+                    try (ClientSession agentSession = agent.connect()) {
                         SshUtil.openFirewallPorts(agentSession);
                         SshUtil.run(agentSession, "sudo yum install jdk-17-headless -y", log);
                     }
@@ -173,7 +199,7 @@ public class HyperfoilRunner implements AutoCloseable {
 
             try (ChannelExec controllerCommand = controllerSession.createExecChannel(REMOTE_HYPERFOIL_LOCATION + "/bin/controller.sh -Djgroups.join_timeout=20000");
                  ResilientSshPortForwarder controllerPortForward = factory.resilientForwarderFactory.create(
-                         () -> factory.sshFactory.connect(instances.controller, HYPERFOIL_CONTROLLER_IP, relay),
+                         () -> instances.controller.connect(),
                          new SshdSocketAddress("localhost", 8090)
                  );
                  RestClient client = new RestClient(
@@ -181,86 +207,261 @@ public class HyperfoilRunner implements AutoCloseable {
                          controllerPortForward.address().getHostName(),
                          controllerPortForward.address().getPort(),
                          false, true, null)) {
-                this.controllerPortForward.complete(controllerPortForward);
+                this.onControllerFailure.complete(controllerPortForward::disconnect);
 
                 SshUtil.forwardOutput(controllerCommand, log);
                 controllerCommand.open().verify();
 
-                while (true) {
-                    try {
-                        client.ping();
-                        break;
-                    } catch (RestClientException e) {
-                        if (!(e.getCause() instanceof HttpClosedException hce) || !hce.getMessage().equals("Connection was closed")) {
-                            throw e;
-                        }
-                    }
-                    if (!controllerCommand.isOpen()) {
-                        throw new IllegalStateException("Controller exec channel closed, did the controller die?");
-                    }
-                    LOG.info("Connecting to hyperfoil controller forwarded at {}", controllerPortForward.address());
-                    TimeUnit.SECONDS.sleep(1);
-                }
-
-                this.client.complete(client);
-
-                //noinspection InfiniteLoopStatement
-                while (true) {
-                    synchronized (this) {
-                        wait(); // wait for interrupt
-                    }
-                }
+                awaitController(client, controllerCommand::isOpen, controllerPortForward.address().toString());
             } finally {
-                this.controllerSession = null;
+                this.controllerHost = null;
                 LOG.info("Closing benchmark client");
             }
         } catch (Throwable t) {
             this.client.completeExceptionally(t);
-            this.relay.completeExceptionally(t);
             throw t;
         }
     }
 
-    public void setRelay(SshFactory.Relay relay) {
-        this.relay.complete(relay);
+    /**
+     * Start a standalone hyperfoil controller on this machine. The benchmarks have no agents, so they run in the
+     * controller VM.
+     */
+    private void deployLocal(LocalInfrastructure.LocalConfiguration local) throws Exception {
+        Path hyperfoilLocation = local.hyperfoilLocation() == null ? LOCAL_HYPERFOIL_LOCATION : local.hyperfoilLocation();
+        LocalServerHost pinnedHost = new LocalServerHost(logDirectory, factory.executor, local.hyperfoilCpus());
+        try (
+                OutputListener.Write log = new OutputListener.Write(Files.newOutputStream(logDirectory.resolve("hyperfoil.log")));
+                ServerHost.Command controllerCommand = pinnedHost.start(hyperfoilLocation.toAbsolutePath() + "/bin/standalone.sh", log);
+                RestClient client = new RestClient(factory.vertx, "localhost", LocalInfrastructure.HYPERFOIL_CONTROLLER_PORT, false, true, null)) {
+            // the curl checks don't need to be pinned
+            this.controllerHost = new LocalServerHost(logDirectory, factory.executor, null);
+            this.onControllerFailure.complete(() -> {});
+
+            awaitController(client, controllerCommand::isAlive, "localhost:" + LocalInfrastructure.HYPERFOIL_CONTROLLER_PORT);
+        } catch (Throwable t) {
+            this.client.completeExceptionally(t);
+            throw t;
+        } finally {
+            this.controllerHost = null;
+            LOG.info("Closing benchmark client");
+        }
     }
 
-    public FrameworkRun.BenchmarkClosure benchmarkClosure(Path outputDirectory, ProtocolSettings protocol, byte[] body) {
+    /**
+     * Wait until the controller responds, then make the client available and block until this runner is closed.
+     */
+    private void awaitController(RestClient client, BooleanSupplier controllerAlive, String address) throws Exception {
+        while (true) {
+            try {
+                client.ping();
+                break;
+            } catch (RestClientException e) {
+                if (!(e.getCause() instanceof HttpClosedException hce) || !hce.getMessage().equals("Connection was closed")) {
+                    if (!(e.getCause() instanceof ConnectException)) {
+                        throw e;
+                    }
+                }
+            }
+            if (!controllerAlive.getAsBoolean()) {
+                throw new IllegalStateException("Controller command exited, did the controller die?");
+            }
+            LOG.info("Connecting to hyperfoil controller at {}", address);
+            TimeUnit.SECONDS.sleep(1);
+        }
+
+        this.client.complete(client);
+
+        //noinspection InfiniteLoopStatement
+        while (true) {
+            synchronized (this) {
+                wait(); // wait for interrupt
+            }
+        }
+    }
+
+    /**
+     * @param body The {@code /search/find} body of the load variant, for the startup phases
+     * @param requests The requests of the other phases, see {@link MixedRequest}
+     */
+    public FrameworkRun.BenchmarkClosure benchmarkClosure(Path outputDirectory, ProtocolSettings protocol, byte[] body, List<MixedRequest> requests) {
         return new FrameworkRun.BenchmarkClosure() {
             @Override
             public void benchmark(PhaseTracker.PhaseUpdater progress) throws Exception {
-                HyperfoilRunner.this.benchmark(outputDirectory, protocol, body, progress, false);
+                if (protocol.shape() == LoadShape.SATURATION) {
+                    saturation(outputDirectory, protocol, requests, progress);
+                } else {
+                    HyperfoilRunner.this.benchmark(outputDirectory, protocol, requests, progress, LoadMode.BENCHMARK);
+                }
             }
 
             @Override
             public void pgoLoad(PhaseTracker.PhaseUpdater progress) throws Exception {
-                HyperfoilRunner.this.benchmark(outputDirectory, protocol, body, progress, true);
+                HyperfoilRunner.this.benchmark(outputDirectory, protocol, requests, progress, LoadMode.PGO);
+            }
+
+            @Override
+            public void startup(PhaseTracker.PhaseUpdater progress, long launchedAt, long firstResponseAt) throws Exception {
+                HyperfoilRunner.this.startup(outputDirectory, protocol, body, progress, launchedAt, firstResponseAt);
             }
         };
     }
 
-    private void benchmark(Path outputDirectory, ProtocolSettings protocol, byte[] body, PhaseTracker.PhaseUpdater progress, boolean forPgo) throws Exception {
+    private void startup(Path outputDirectory, ProtocolSettings protocol, byte[] body, PhaseTracker.PhaseUpdater progress, long launchedAt, long firstResponseAt) throws Exception {
+        // no request mix, so that there is one stats entry per phase
+        List<MixedRequest> requests = List.of(new MixedRequest(MixedRequest.DEFAULT_METRIC, MixedRequest.Type.FIND, 1, body));
+        StatsAll statsAll = benchmark(outputDirectory, protocol, requests, progress, LoadMode.STARTUP);
+        List<StartupResult.Phase> phases = statsAll.stats.stream()
+                .map(stats -> {
+                    StatisticsSummary summary = stats.total.summary;
+                    return new StartupResult.Phase(
+                            stats.phase,
+                            summary.startTime - launchedAt,
+                            summary.endTime - launchedAt,
+                            summary.responseCount * 1000.0 / Math.max(1, summary.endTime - summary.startTime)
+                    );
+                })
+                .sorted(Comparator.comparingLong(StartupResult.Phase::startMillis))
+                .toList();
+        double peakThroughput = phases.stream().mapToDouble(StartupResult.Phase::throughput).max().orElse(0);
+        long timeToPeak = phases.stream()
+                .filter(phase -> phase.throughput >= peakThroughput * factory.startupConfig.peakFraction())
+                .findFirst()
+                .map(StartupResult.Phase::endMillis)
+                .orElseThrow();
+        Files.write(outputDirectory.resolve("startup.json"), factory.objectMapper.writeValueAsBytes(new StartupResult(
+                firstResponseAt - launchedAt,
+                phases.get(0).startMillis,
+                peakThroughput,
+                timeToPeak,
+                phases
+        )));
+    }
+
+    /**
+     * Binary search for the highest rate that passes the SLA, see {@link LoadShape#SATURATION}.
+     */
+    private void saturation(Path outputDirectory, ProtocolSettings protocol, List<MixedRequest> requests, PhaseTracker.PhaseUpdater progress) throws Exception {
+        SaturationConfiguration config = factory.saturationConfig;
+        if (protocol.ops().size() != 2 || protocol.ops().get(0) >= protocol.ops().get(1)) {
+            throw new IllegalArgumentException("The saturation load shape needs two ops entries (lower and upper bound of the search), got " + protocol.ops());
+        }
+        Path searchDirectory = outputDirectory.resolve("saturation");
+        Files.createDirectories(searchDirectory.resolve("warmup"));
+        benchmark(searchDirectory.resolve("warmup"), protocol, requests, progress, LoadMode.WARMUP, 0);
+
+        List<SaturationResult.Probe> probes = new ArrayList<>();
+        // invariant: passing < failing. if the bounds themselves pass or fail, the search ends early
+        int passing = 0;
+        int failing = protocol.ops().get(1);
+        int next = protocol.ops().get(0);
+        while (probes.size() < config.maxProbes()) {
+            Path probeDirectory = searchDirectory.resolve("probe-" + probes.size() + "-" + next);
+            Files.createDirectories(probeDirectory);
+            StatsAll statsAll = benchmark(probeDirectory, protocol, requests, progress, LoadMode.PROBE, next);
+            SaturationResult.Probe probe = evaluateSla(statsAll, "probe", next);
+            LOG.info("Saturation probe: {}", probe);
+            probes.add(probe);
+            if (probe.passed) {
+                passing = next;
+            } else {
+                failing = next;
+            }
+            if (passing == 0) {
+                // the lower bound failed
+                break;
+            }
+            if (probes.size() == 1) {
+                // probe the upper bound next, it might pass too
+                next = failing;
+            } else if (passing == failing || failing - passing <= passing * config.resolution()) {
+                break;
+            } else {
+                next = (passing + failing) / 2;
+            }
+        }
+
+        SaturationResult.Probe confirm = null;
+        if (passing == 0) {
+            LOG.warn("The lower bound {} of the saturation search did not pass the SLA", protocol.ops().get(0));
+        } else {
+            StatsAll statsAll = benchmark(outputDirectory, protocol, requests, progress, LoadMode.CONFIRM, passing);
+            confirm = evaluateSla(statsAll, "main/0", passing);
+            LOG.info("Saturation confirm: {}", confirm);
+            if (!confirm.passed) {
+                LOG.warn("The saturation search result {} did not pass the SLA in the confirm phase", passing);
+            }
+        }
+        Files.write(outputDirectory.resolve("saturation.json"), factory.objectMapper.writeValueAsBytes(new SaturationResult(
+                passing,
+                confirm != null && confirm.passed,
+                confirm,
+                probes
+        )));
+    }
+
+    private SaturationResult.Probe evaluateSla(StatsAll statsAll, String phase, int ops) {
+        SaturationConfiguration config = factory.saturationConfig;
+        long requests = 0;
+        long responses = 0;
+        long errors = 0;
+        long latency = 0;
+        long startTime = Long.MAX_VALUE;
+        long endTime = Long.MIN_VALUE;
+        for (StatsAll.Stats stats : statsAll.stats) {
+            if (!isPhase(stats.phase, phase)) {
+                continue;
+            }
+            StatisticsSummary summary = stats.total.summary;
+            requests += summary.requestCount;
+            responses += summary.responseCount;
+            errors += summary.invalid + summary.connectionErrors + summary.requestTimeouts + summary.internalErrors;
+            // the recorded percentile closest to the configured one, rounding up
+            latency = Math.max(latency, summary.percentileResponseTime.tailMap(config.percentile()).values().stream()
+                    .findFirst()
+                    .orElse(summary.maxResponseTime));
+            startTime = Math.min(startTime, summary.startTime);
+            endTime = Math.max(endTime, summary.endTime);
+        }
+        double errorRate = (double) errors / Math.max(1, requests);
+        double throughput = responses * 1000.0 / Math.max(1, endTime - startTime);
+        boolean passed = responses > 0 &&
+                latency <= config.maxLatency().toNanos() &&
+                errorRate <= config.maxErrorRate() &&
+                throughput >= ops * config.minThroughputFraction();
+        return new SaturationResult.Probe(ops, passed, latency, errorRate, throughput);
+    }
+
+    private StatsAll benchmark(Path outputDirectory, ProtocolSettings protocol, List<MixedRequest> requests, PhaseTracker.PhaseUpdater progress, LoadMode mode) throws Exception {
+        return benchmark(outputDirectory, protocol, requests, progress, mode, 0);
+    }
+
+    /**
+     * @param ops The rate of the {@link LoadMode#PROBE} and {@link LoadMode#CONFIRM} modes, unused otherwise
+     */
+    private StatsAll benchmark(Path outputDirectory, ProtocolSettings protocol, List<MixedRequest> requests, PhaseTracker.PhaseUpdater progress, LoadMode mode, int ops) throws Exception {
+        boolean forPgo = mode == LoadMode.PGO;
         BenchmarkPhase benchmarkPhase = forPgo ? BenchmarkPhase.PGO : BenchmarkPhase.BENCHMARKING;
 
         progress.update(benchmarkPhase);
-        String ip = Infrastructure.SERVER_IP;
+        String ip = serverIp;
         int port = protocol.protocol() == Protocol.HTTP1 ? 8080 : 8443;
         io.hyperfoil.http.config.Protocol prot = protocol.protocol() == Protocol.HTTP1 ? io.hyperfoil.http.config.Protocol.HTTP : io.hyperfoil.http.config.Protocol.HTTPS;
 
         String statusUri = prot.scheme + "://" + ip + ":" + port + "/status";
         String findUri = prot.scheme + "://" + ip + ":" + port + "/search/find";
         String curlBase = "curl " + (protocol.protocol() == Protocol.HTTPS2 ? "--http2" : "--http1.1") + " -H 'Accept: application/json' --insecure ";
-        Infrastructure.retry(() -> {
+        AbstractInfrastructure.retry(() -> {
             try (OutputListener.Write write = new OutputListener.Write(Files.newOutputStream(outputDirectory.resolve("status.http")))) {
-                SshUtil.run(controllerSession, curlBase + "-v " + statusUri, write);
+                controllerHost.run(curlBase + "-v " + statusUri, write);
             }
             return null;
-        }, controllerPortForward.get()::disconnect);
-        Infrastructure.retry(() -> {
+        }, onControllerFailure.get());
+        AbstractInfrastructure.retry(() -> {
             String testBody = factory.objectMapper.writeValueAsString(new Input(List.of("foo", "bar"), "ar"));
             ByteArrayOutputStream resp = new ByteArrayOutputStream();
             try (OutputListener.Write write = new OutputListener.Write(resp)) {
-                SshUtil.run(controllerSession, curlBase + "--silent -d '" + testBody + "' -H 'Content-Type: application/json' " + findUri, write);
+                controllerHost.run(curlBase + "--silent -d '" + testBody + "' -H 'Content-Type: application/json' " + findUri, write);
             }
             Result result = factory.objectMapper.readValue(resp.toByteArray(), Result.class);
             if (result.listIndex != 1 || result.stringIndex != 1) {
@@ -268,14 +469,29 @@ public class HyperfoilRunner implements AutoCloseable {
             }
             return null;
         });
+        // the response headers differ between frameworks (date, server, connection…), so record exactly what is on
+        // the wire for each run. for HTTP/2, curl reports the decoded headers, the HPACK-encoded frames are smaller
+        int responseHeaderBytes = AbstractInfrastructure.retry(() -> {
+            String testBody = factory.objectMapper.writeValueAsString(new Input(List.of("foo", "bar"), "ar"));
+            ByteArrayOutputStream headers = new ByteArrayOutputStream();
+            try (OutputListener.Write write = new OutputListener.Write(headers)) {
+                controllerHost.run(curlBase + "--silent --output /dev/null --dump-header - -d '" + testBody + "' -H 'Content-Type: application/json' " + findUri, write);
+            }
+            Files.write(outputDirectory.resolve("find.http"), headers.toByteArray());
+            return headers.size();
+        });
+        LOG.info("Response headers of /search/find are {} bytes", responseHeaderBytes);
 
         String name = "benchmark-" + UUID.randomUUID();
         BenchmarkBuilder benchmark = BenchmarkBuilder.builder()
                 .name(name)
                 .failurePolicy(Benchmark.FailurePolicy.CANCEL);
-        for (int i = 0; i < factory.config.agentCount; i++) {
-            benchmark.addAgent("agent" + i, agentIp(i) + ":22", Map.of(
-                    "threads", String.valueOf(factory.compute.getCoreCount(AGENT_INSTANCE_TYPE)),
+        if (local != null && local.hyperfoilThreads() > 0) {
+            benchmark.threads(local.hyperfoilThreads());
+        }
+        for (int i = 0; instances != null && i < instances.agents.size(); i++) {
+            benchmark.addAgent("agent" + i, network.address(agentIp(i)) + ":22", Map.of(
+                    "threads", String.valueOf(network.coreCount(AGENT_INSTANCE_TYPE)),
                     "extras", "-XX:+UseG1GC -XX:MaxGCPauseMillis=50"
             ));
         }
@@ -288,42 +504,90 @@ public class HyperfoilRunner implements AutoCloseable {
                 .allowHttp1x(protocol.protocol() != Protocol.HTTPS2)
                 .allowHttp2(protocol.protocol() == Protocol.HTTPS2)
                 .sharedConnections(protocol.sharedConnections())
-                .connectionStrategy(ConnectionStrategy.SHARED_POOL)
+                .connectionStrategy(protocol.connectionStrategy())
                 .pipeliningLimit(protocol.pipeliningLimit())
                 .maxHttp2Streams(protocol.maxHttp2Streams());
 
         List<String> phaseNames = new ArrayList<>();
-        if (!forPgo) {
+        if (mode == LoadMode.BENCHMARK) {
             phaseNames.add("warmup");
-            prepareScenario(body, ip, port, benchmark.addPhase("warmup")
+            prepareScenario(requests, ip, port, benchmark.addPhase("warmup")
                     .constantRate(protocol.compileOps())
                     .maxSessions((int) (protocol.compileOps() * factory.config.sessionLimitFactor))
                     .duration(TimeUnit.MILLISECONDS.convert(factory.config.warmupDuration))
-                    .isWarmup(true)
-                    .scenario());
+                    .isWarmup(true));
             String lastPhase = "warmup";
-            for (int i = 0; i < protocol.ops().size(); i++) {
-                int ops = protocol.ops().get(i);
+            List<MainPhase> mainPhases = mainPhases(protocol);
+            for (int i = 0; i < mainPhases.size(); i++) {
+                MainPhase mainPhase = mainPhases.get(i);
                 String phaseName = "main/" + i;
                 phaseNames.add(phaseName);
-                prepareScenario(body, ip, port, benchmark.addPhase(phaseName)
-                        .constantRate(0)
-                        .usersPerSec(ops)
-                        .maxSessions(Math.min((int) (ops * factory.config.sessionLimitFactor), protocol.sharedConnections()))
-                        .duration(TimeUnit.MILLISECONDS.convert(factory.config.benchmarkDuration))
+                PhaseBuilder<?> phase;
+                if (mainPhase.closed()) {
+                    phase = benchmark.addPhase(phaseName).always(mainPhase.fromOps());
+                } else {
+                    int maxSessions = Math.min((int) (Math.max(mainPhase.fromOps(), mainPhase.toOps()) * factory.config.sessionLimitFactor), protocol.sharedConnections());
+                    if (mainPhase.fromOps() == mainPhase.toOps()) {
+                        phase = benchmark.addPhase(phaseName)
+                                .constantRate(0)
+                                .usersPerSec(mainPhase.fromOps())
+                                .maxSessions(maxSessions);
+                    } else {
+                        phase = benchmark.addPhase(phaseName)
+                                .rampRate(mainPhase.fromOps(), mainPhase.toOps())
+                                .maxSessions(maxSessions);
+                    }
+                }
+                prepareScenario(requests, ip, port, phase
+                        .duration(mainPhase.duration().toMillis())
                         .isWarmup(false)
-                        .startAfter(lastPhase)
-                        .scenario());
+                        .startAfter(lastPhase));
+                lastPhase = phaseName;
+            }
+        } else if (mode == LoadMode.WARMUP) {
+            phaseNames.add("warmup");
+            prepareScenario(requests, ip, port, benchmark.addPhase("warmup")
+                    .constantRate(protocol.compileOps())
+                    .maxSessions((int) (protocol.compileOps() * factory.config.sessionLimitFactor))
+                    .duration(TimeUnit.MILLISECONDS.convert(factory.config.warmupDuration))
+                    .isWarmup(true));
+        } else if (mode == LoadMode.PROBE || mode == LoadMode.CONFIRM) {
+            String phaseName = mode == LoadMode.PROBE ? "probe" : "main/0";
+            Duration duration = mode == LoadMode.PROBE ? factory.saturationConfig.probeDuration() : factory.config.benchmarkDuration;
+            phaseNames.add(phaseName);
+            prepareScenario(requests, ip, port, benchmark.addPhase(phaseName)
+                    .constantRate(0)
+                    .usersPerSec(ops)
+                    .maxSessions(Math.min((int) (ops * factory.config.sessionLimitFactor), protocol.sharedConnections()))
+                    .duration(duration.toMillis())
+                    .isWarmup(false));
+        } else if (mode == LoadMode.STARTUP) {
+            // saturating load from the first phase on, so that each phase measures what the server manages at that
+            // point of its warmup
+            int maxOps = Collections.max(protocol.ops());
+            String lastPhase = null;
+            for (int i = 0; i < factory.startupConfig.phaseCount(); i++) {
+                String phaseName = "startup/" + i;
+                phaseNames.add(phaseName);
+                PhaseBuilder.ConstantRate phase = benchmark.addPhase(phaseName)
+                        .constantRate(0)
+                        .usersPerSec(maxOps)
+                        .maxSessions(Math.min((int) (maxOps * factory.config.sessionLimitFactor), protocol.sharedConnections()))
+                        .duration(factory.startupConfig.phaseDuration().toMillis())
+                        .isWarmup(false);
+                if (lastPhase != null) {
+                    phase.startAfter(lastPhase);
+                }
+                prepareScenario(requests, ip, port, phase);
                 lastPhase = phaseName;
             }
         } else {
             phaseNames.add("pgo");
-            prepareScenario(body, ip, port, benchmark.addPhase("pgo")
+            prepareScenario(requests, ip, port, benchmark.addPhase("pgo")
                     .constantRate(protocol.compileOps())
                     .maxSessions((int) (protocol.compileOps() * factory.config.sessionLimitFactor))
                     .duration(TimeUnit.MILLISECONDS.convert(factory.config.pgoDuration))
-                    .isWarmup(false)
-                    .scenario());
+                    .isWarmup(false));
         }
 
         Benchmark builtBenchmark = benchmark.build();
@@ -334,7 +598,7 @@ public class HyperfoilRunner implements AutoCloseable {
         long startTime = System.nanoTime();
         String lastPhase = null;
         while (true) {
-            RequestStatisticsResponse recentStats = Infrastructure.retry(runRef::statsRecent, controllerPortForward.get()::disconnect);
+            RequestStatisticsResponse recentStats = AbstractInfrastructure.retry(runRef::statsRecent, onControllerFailure.get());
             if (recentStats.status.equals("TERMINATED")) {
                 break;
             }
@@ -348,7 +612,11 @@ public class HyperfoilRunner implements AutoCloseable {
                 log.append(' ').append(statistic.metric).append(':').append(statistic.phase).append(":mean=").append(statistic.summary.meanResponseTime);
                 if (!Objects.equals(statistic.phase, lastPhase)) {
                     lastPhase = statistic.phase;
-                    double progressPercent = (phaseNames.indexOf(statistic.phase) + 1.0) / (phaseNames.size() + 1);
+                    int phaseIndex = 0;
+                    while (phaseIndex < phaseNames.size() && !isPhase(statistic.phase, phaseNames.get(phaseIndex))) {
+                        phaseIndex++;
+                    }
+                    double progressPercent = (phaseIndex + 1.0) / (phaseNames.size() + 1);
                     progress.update(benchmarkPhase, progressPercent, statistic.phase);
                 }
             }
@@ -358,10 +626,10 @@ public class HyperfoilRunner implements AutoCloseable {
 
         record StatsAllWrapper(byte[] resultBytes, StatsAll statsAll) {}
 
-        StatsAllWrapper wrapper = Infrastructure.retry(() -> {
+        StatsAllWrapper wrapper = AbstractInfrastructure.retry(() -> {
             byte[] bytes = runRef.statsAll("json");
             return new StatsAllWrapper(bytes, factory.objectMapper.readValue(bytes, StatsAll.class));
-        }, controllerPortForward.get()::disconnect);
+        }, onControllerFailure.get());
         List<String> benchmarkFailures = new ArrayList<>();
         boolean invalidatesBenchmark = false;
         for (StatsAll.Info.Error error : wrapper.statsAll.info.errors) {
@@ -373,13 +641,14 @@ public class HyperfoilRunner implements AutoCloseable {
         }
         for (StatsAll.SlaFailure failure : wrapper.statsAll.failures) {
             LOG.info("SLA failure: {}", failure);
-            if (failure.phase.equals("pgo") || failure.phase.equals("warmup")) {
+            if (isPhase(failure.phase, "pgo") || isPhase(failure.phase, "warmup")) {
                 benchmarkFailures.add("SLA failure in " + failure.phase + " phase: " + failure.message);
                 invalidatesBenchmark = true;
             }
         }
         for (StatsAll.Stats stats : wrapper.statsAll.stats) {
-            if (stats.total.summary.responseCount == 0) {
+            // a probe may well overload the server, evaluateSla takes care of that
+            if (stats.total.summary.responseCount == 0 && mode != LoadMode.PROBE) {
                 benchmarkFailures.add("No responses in phase " + stats.phase);
                 invalidatesBenchmark = true;
             }
@@ -388,8 +657,8 @@ public class HyperfoilRunner implements AutoCloseable {
         if (!forPgo || !benchmarkFailures.isEmpty()) {
             LOG.info("Downloading agent logs…");
             try {
-                for (String agent : Infrastructure.retry(client::agents, controllerPortForward.get()::disconnect)) {
-                    Infrastructure.retry(() -> client.downloadLog(agent, null, 0, outputDirectory.resolve(agent.replaceAll("[^0-9a-zA-Z]", "") + ".log").toFile()), controllerPortForward.get()::disconnect);
+                for (String agent : AbstractInfrastructure.retry(client::agents, onControllerFailure.get())) {
+                    AbstractInfrastructure.retry(() -> client.downloadLog(agent, null, 0, outputDirectory.resolve(agent.replaceAll("[^0-9a-zA-Z]", "") + ".log").toFile()), onControllerFailure.get());
                 }
             } catch (Exception e) {
                 LOG.error("Failed to download agent logs", e);
@@ -399,23 +668,118 @@ public class HyperfoilRunner implements AutoCloseable {
             Path outputPath = outputDirectory.resolve(benchmarkFailures.isEmpty() ? "output.json" : "output-failed.json");
             Files.write(outputPath, wrapper.resultBytes);
             Path metaPath = outputDirectory.resolve(benchmarkFailures.isEmpty() ? "meta.json" : "meta-failed.json");
-            Files.write(metaPath, factory.objectMapper.writeValueAsBytes(new Metadata(factory.config)));
+            Files.write(metaPath, factory.objectMapper.writeValueAsBytes(new Metadata(factory.config, responseHeaderBytes)));
             if (!benchmarkFailures.isEmpty()) {
                 String msg = String.join("\n", benchmarkFailures) + "\nOutput written at: " + outputPath;
                 throw invalidatesBenchmark ? new InvalidatesBenchmarkException(msg) : new Exception(msg);
             }
         }
+        return wrapper.statsAll;
     }
 
-    private static void prepareScenario(byte[] body, String ip, int port, ScenarioBuilder warmup) {
-        warmup.initialSequence("test")
-                .step(HttpStepCatalog.class)
-                .httpRequest(HttpMethod.POST)
-                .authority(ip + ":" + port)
-                .path("/search/find")
-                // MUST be lowercase for HTTP/2
-                .headers().header("content-type", "application/json").endHeaders()
-                .body(new ConstantBytesGenerator(body));
+    /**
+     * Split the {@link ProtocolSettings#shape()} into the main phases, see {@link LoadShape}.
+     */
+    private List<MainPhase> mainPhases(ProtocolSettings protocol) {
+        List<Integer> ops = protocol.ops();
+        Duration benchmarkDuration = factory.config.benchmarkDuration;
+        List<MainPhase> phases = new ArrayList<>();
+        switch (protocol.shape()) {
+            case CONSTANT_RATE -> {
+                for (int o : ops) {
+                    phases.add(new MainPhase(false, o, o, benchmarkDuration));
+                }
+            }
+            case CLOSED -> {
+                for (int o : ops) {
+                    phases.add(new MainPhase(true, o, o, benchmarkDuration));
+                }
+            }
+            case STEPS -> {
+                for (int o : ops) {
+                    phases.add(new MainPhase(false, o, o, protocol.stepDuration()));
+                }
+            }
+            case RAMP -> {
+                if (ops.size() < 2) {
+                    throw new IllegalArgumentException("The ramp load shape needs at least two ops entries, got " + ops);
+                }
+                for (int i = 1; i < ops.size(); i++) {
+                    phases.add(new MainPhase(false, ops.get(i - 1), ops.get(i), benchmarkDuration));
+                }
+            }
+            case SINUSOIDAL -> {
+                if (ops.size() != 2) {
+                    throw new IllegalArgumentException("The sinusoidal load shape needs exactly two ops entries (low and high), got " + ops);
+                }
+                long periodMillis = (protocol.period() == null ? benchmarkDuration : protocol.period()).toMillis();
+                long stepMillis = protocol.stepDuration().toMillis();
+                long totalMillis = benchmarkDuration.toMillis();
+                for (long start = 0; start < totalMillis; start += stepMillis) {
+                    long end = Math.min(start + stepMillis, totalMillis);
+                    phases.add(new MainPhase(
+                            false,
+                            sineRate(ops.get(0), ops.get(1), periodMillis, start),
+                            sineRate(ops.get(0), ops.get(1), periodMillis, end),
+                            Duration.ofMillis(end - start)
+                    ));
+                }
+            }
+        }
+        return phases;
+    }
+
+    private static int sineRate(int low, int high, long periodMillis, long millis) {
+        // starts at the low point, like a day starting at night
+        double cos = Math.cos(2 * Math.PI * millis / periodMillis);
+        return (int) Math.round(low + (high - low) * (1 - cos) / 2);
+    }
+
+    /**
+     * Set up the scenario of a phase. With more than one request, the phase is split into one fork for each request,
+     * named by its metric. Hyperfoil names the forks {@code <phase>/<metric>} and distributes the phase rate by the
+     * request weights.
+     */
+    private static void prepareScenario(List<MixedRequest> requests, String ip, int port, PhaseBuilder<?> phase) {
+        if (requests.size() == 1) {
+            prepareRequest(requests.get(0), ip, port, phase.scenario().initialSequence("test")
+                    .step(HttpStepCatalog.class)
+                    .httpRequest(requests.get(0).type().method));
+        } else {
+            for (MixedRequest request : requests) {
+                prepareRequest(request, ip, port, phase.fork(request.metric())
+                        .weight(request.weight())
+                        .scenario()
+                        .initialSequence(request.metric())
+                        .step(HttpStepCatalog.class)
+                        .httpRequest(request.type().method)
+                        .metric(request.metric()));
+            }
+        }
+    }
+
+    private static void prepareRequest(MixedRequest request, String ip, int port, HttpRequestStepBuilder step) {
+        step.authority(ip + ":" + port)
+                .path(request.type().path);
+        if (request.body() != null) {
+            // MUST be lowercase for HTTP/2
+            step.headers().header("content-type", request.type().contentType).endHeaders()
+                    .body(new ConstantBytesGenerator(request.body()));
+        }
+        if (request.type().error) {
+            // the frameworks don't agree on the status of some errors, e.g. vert.x answers a wrong method with 404, so
+            // accept any 4xx. 5xx responses still count as invalid
+            step.handler()
+                    .autoRangeCheck(false)
+                    .status(new RangeStatusValidator.Builder().min(400).max(499));
+        }
+    }
+
+    /**
+     * Whether stats of {@code statsPhase} belong to {@code phase}, including the forks of a request mix.
+     */
+    private static boolean isPhase(String statsPhase, String phase) {
+        return statsPhase.equals(phase) || statsPhase.startsWith(phase + "/");
     }
 
     public void terminateAsync() {
@@ -434,19 +798,21 @@ public class HyperfoilRunner implements AutoCloseable {
 
     @Singleton
     static final class Factory {
-        private final Compute compute;
         private final SshFactory sshFactory;
         private final ExecutorService executor;
         private final HyperfoilConfiguration config;
+        private final StartupConfiguration startupConfig;
+        private final SaturationConfiguration saturationConfig;
         private final ObjectMapper objectMapper;
         private final ResilientSshPortForwarder.Factory resilientForwarderFactory;
         private final Vertx vertx;
 
-        Factory(Compute compute, SshFactory sshFactory, @Named(TaskExecutors.IO) ExecutorService executor, HyperfoilConfiguration config, ObjectMapper objectMapper, ResilientSshPortForwarder.Factory resilientForwarderFactory) {
-            this.compute = compute;
+        Factory(SshFactory sshFactory, @Named(TaskExecutors.IO) ExecutorService executor, HyperfoilConfiguration config, StartupConfiguration startupConfig, SaturationConfiguration saturationConfig, ObjectMapper objectMapper, ResilientSshPortForwarder.Factory resilientForwarderFactory) {
             this.sshFactory = sshFactory;
             this.executor = executor;
             this.config = config;
+            this.startupConfig = startupConfig;
+            this.saturationConfig = saturationConfig;
             this.objectMapper = objectMapper;
             this.resilientForwarderFactory = resilientForwarderFactory;
             this.vertx = Vertx.vertx();
@@ -454,8 +820,12 @@ public class HyperfoilRunner implements AutoCloseable {
             objectMapper.registerSubtypes(HttpStats.class);
         }
 
-        public HyperfoilRunner launch(Path outputDirectory, OciLocation location, String privateSubnetId) throws Exception {
-            return new HyperfoilRunner(this, outputDirectory, location, privateSubnetId);
+        public HyperfoilRunner launch(Path outputDirectory, InfrastructureProvider.Network network) throws Exception {
+            return new HyperfoilRunner(this, outputDirectory, network, null);
+        }
+
+        public HyperfoilRunner launchLocal(Path outputDirectory, LocalInfrastructure.LocalConfiguration local) throws Exception {
+            return new HyperfoilRunner(this, outputDirectory, null, local);
         }
     }
 
@@ -470,9 +840,51 @@ public class HyperfoilRunner implements AutoCloseable {
     ) {
     }
 
+    private enum LoadMode {
+        /**
+         * Warmup phase followed by the main phases of the {@link ProtocolSettings#shape()}.
+         */
+        BENCHMARK,
+        /**
+         * Load for collecting the native image PGO profile.
+         */
+        PGO,
+        /**
+         * Short consecutive phases at saturating load, see {@link StartupConfiguration}.
+         */
+        STARTUP,
+        /**
+         * Only the warmup phase, before the {@link #PROBE}s of a {@link LoadShape#SATURATION} search.
+         */
+        WARMUP,
+        /**
+         * A short constant rate phase of a {@link LoadShape#SATURATION} search.
+         */
+        PROBE,
+        /**
+         * A full length constant rate phase at the rate found by a {@link LoadShape#SATURATION} search.
+         */
+        CONFIRM,
+    }
+
+    /**
+     * A main phase of a {@link LoadShape}.
+     *
+     * @param closed Whether this is a closed model phase
+     * @param fromOps The rate at the start of the phase, or the number of concurrent sessions for a closed phase
+     * @param toOps The rate at the end of the phase
+     * @param duration The phase duration
+     */
+    private record MainPhase(
+            boolean closed,
+            int fromOps,
+            int toOps,
+            Duration duration
+    ) {}
+
     private record HyperfoilInstances(
-            Compute.Instance controller,
-            List<Compute.Instance> agents
+            InfrastructureProvider.Instance controller,
+            List<InfrastructureProvider.Instance> agents
     ) {}
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -515,5 +927,54 @@ public class HyperfoilRunner implements AutoCloseable {
 
     private record Result(int listIndex, int stringIndex) {}
 
-    private record Metadata(HyperfoilConfiguration hyperfoilConfiguration) {}
+    /**
+     * @param hyperfoilConfiguration The load generator configuration
+     * @param responseHeaderBytes Size of the {@code /search/find} response headers, including the status line. The
+     *                            headers themselves are in {@code find.http}
+     */
+    private record Metadata(HyperfoilConfiguration hyperfoilConfiguration, int responseHeaderBytes) {}
+
+    /**
+     * Result of a {@link LoadShape#SATURATION} search.
+     *
+     * @param maxOpsAtSla The highest rate that passed the SLA in the probes, or {@code 0} if the lower bound failed
+     * @param confirmed Whether the full length confirm phase at {@code maxOpsAtSla} passed the SLA too. If it did not,
+     *                  the rate only holds for the probe duration, see {@code confirm} for the full length results
+     * @param confirm The full length phase at {@code maxOpsAtSla}, or {@code null} if no probe passed
+     * @param probes The probes in the order they ran
+     */
+    private record SaturationResult(
+            int maxOpsAtSla,
+            boolean confirmed,
+            @Nullable Probe confirm,
+            List<Probe> probes
+    ) {
+        /**
+         * @param latencyNanos Latency at {@link SaturationConfiguration#percentile()}, the highest of all metrics
+         * @param errorRate Fraction of failed requests
+         * @param throughput Responses per second
+         */
+        private record Probe(int ops, boolean passed, long latencyNanos, double errorRate, double throughput) {}
+    }
+
+    /**
+     * Result of a startup run. All times are milliseconds since the server process was launched. The phase times come
+     * from the agent clocks and the launch time from the server clock, so they are only as precise as the clock sync.
+     *
+     * @param timeToFirstResponseMillis Time until the first successful response
+     * @param loadStartMillis Start of the first load phase. Everything between the first response and this is spent
+     *                        setting up the load generator, so the server is idle
+     * @param peakThroughput Highest throughput of any phase, in responses per second
+     * @param timeToPeakMillis End of the first phase that reached {@link StartupConfiguration#peakFraction()} of the
+     *                         peak throughput
+     */
+    private record StartupResult(
+            long timeToFirstResponseMillis,
+            long loadStartMillis,
+            double peakThroughput,
+            long timeToPeakMillis,
+            List<Phase> phases
+    ) {
+        private record Phase(String phase, long startMillis, long endMillis, double throughput) {}
+    }
 }
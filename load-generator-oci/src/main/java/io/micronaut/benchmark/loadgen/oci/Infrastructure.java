@@ -1,7 +1,6 @@
 package io.micronaut.benchmark.loadgen.oci;
 
-import com.oracle.bmc.core.ComputeClient;
-import com.oracle.bmc.core.VirtualNetworkClient;
+import io.micronaut.context.annotation.Requires;
 import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Singleton;
 import org.apache.sshd.client.session.ClientSession;
@@ -13,42 +12,58 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Objects;
 
-@Singleton
-public class Infrastructure extends AbstractInfrastructure {
+/**
+ * Runs the benchmark server and the hyperfoil cluster on separate instances of an {@link InfrastructureProvider}
+ * network, connecting to them using SSH.
+ */
+public class Infrastructure implements BenchmarkInfrastructure {
     private static final Logger LOG = LoggerFactory.getLogger(Infrastructure.class);
 
     static final String SERVER_IP = "10.0.0.2";
+    private static final String SERVER_INSTANCE_TYPE = "benchmark-server";
 
     private final Factory factory;
+    private final int repetition;
+    private final Path logDirectory;
 
-    private Compute.Instance benchmarkServer;
+    private InfrastructureProvider.Network network;
+    private InfrastructureProvider.Instance benchmarkServer;
     private HyperfoilRunner hyperfoilRunner;
 
     private boolean started;
     private boolean stopped;
 
-    private Infrastructure(Factory factory, OciLocation location, Path logDirectory) {
-        super(location, logDirectory, factory.vcnClient, factory.computeClient, factory.compute);
+    private Infrastructure(Factory factory, int repetition, Path logDirectory) {
         this.factory = factory;
+        this.repetition = repetition;
+        this.logDirectory = logDirectory;
     }
 
     private void start(PhaseTracker.PhaseUpdater progress) throws Exception {
-        setupBase(progress);
+        try {
+            Files.createDirectories(logDirectory);
+        } catch (FileAlreadyExistsException ignored) {
+        }
 
-        benchmarkServer = factory.compute.builder("benchmark-server", location, privateSubnetId)
-                .privateIp(SERVER_IP)
-                .launch();
-        hyperfoilRunner = factory.hyperfoilRunnerFactory.launch(logDirectory, location, privateSubnetId);
-        hyperfoilRunner.setRelay(relay());
+        if (network == null) {
+            network = factory.provider.createNetwork(repetition, logDirectory, progress);
+        }
+
+        if (benchmarkServer == null) {
+            benchmarkServer = network.launch(SERVER_INSTANCE_TYPE, SERVER_IP);
+        }
+        if (hyperfoilRunner == null) {
+            hyperfoilRunner = factory.hyperfoilRunnerFactory.launch(logDirectory, network);
+        }
 
         benchmarkServer.awaitStartup();
 
-        try (ClientSession benchmarkServerClient = factory.sshFactory.connect(benchmarkServer, SERVER_IP, relay());
+        try (ClientSession benchmarkServerClient = benchmarkServer.connect();
              OutputListener.Write log = new OutputListener.Write(Files.newOutputStream(logDirectory.resolve("update.log")))) {
 
             progress.update(BenchmarkPhase.DEPLOYING_OS);
             LOG.info("Updating benchmark server");
-            SshUtil.openFirewallPorts(benchmarkServerClient, log);
+            network.openFirewallPorts(benchmarkServerClient, log);
             // this takes too long
             //SshUtil.run(benchmarkServerClient, "sudo yum update -y", log);
         }
@@ -71,21 +86,26 @@ public class Infrastructure extends AbstractInfrastructure {
         if (hyperfoilRunner != null) {
             hyperfoilRunner.close();
         }
-        terminateRelayAsync();
+        if (network != null) {
+            network.terminateAsync();
+        }
         if (benchmarkServer != null) {
             benchmarkServer.close();
         }
 
-        super.close();
+        if (network != null) {
+            network.close();
+        }
     }
 
+    @Override
     public synchronized void run(Path outputDirectory, FrameworkRun run, LoadVariant loadVariant, PhaseTracker.PhaseUpdater progress) throws Exception {
         if (stopped) {
             throw new InterruptedException("Already stopped");
         }
         try {
             if (!started) {
-                retry(() -> {
+                AbstractInfrastructure.retry(() -> {
                     start(progress);
                     return null;
                 });
@@ -96,7 +116,7 @@ public class Infrastructure extends AbstractInfrastructure {
             } catch (FileAlreadyExistsException ignored) {
             }
 
-            retry(() -> {
+            AbstractInfrastructure.retry(() -> {
                 try {
                     run0(outputDirectory, run, loadVariant, progress);
                 } catch (Exception e) {
@@ -113,7 +133,7 @@ public class Infrastructure extends AbstractInfrastructure {
     }
 
     private void run0(Path outputDirectory, FrameworkRun run, LoadVariant loadVariant, PhaseTracker.PhaseUpdater progress) throws Exception {
-        try (ClientSession benchmarkServerClient = factory.sshFactory.connect(benchmarkServer, SERVER_IP, relay());
+        try (SshServerHost benchmarkServerHost = new SshServerHost(benchmarkServer.connect());
              OutputListener.Write log = new OutputListener.Write(Files.newOutputStream(outputDirectory.resolve("server.log")))) {
             // special PhaseUpdater that logs the current benchmark phase for reference.
             progress = new PhaseTracker.DelegatePhaseUpdater(progress) {
@@ -131,14 +151,14 @@ public class Infrastructure extends AbstractInfrastructure {
 
             PhaseTracker.PhaseUpdater finalProgress = progress;
             factory.sutMonitor.monitorAndRun(
-                    benchmarkServerClient,
+                    benchmarkServerHost,
                     outputDirectory,
                     () -> {
                         run.setupAndRun(
-                                benchmarkServerClient,
+                                benchmarkServerHost,
                                 outputDirectory,
                                 log,
-                                hyperfoilRunner.benchmarkClosure(outputDirectory, loadVariant.protocol(), loadVariant.body()),
+                                hyperfoilRunner.benchmarkClosure(outputDirectory, loadVariant.protocol(), loadVariant.body(), loadVariant.requests()),
                                 finalProgress);
                         return null;
                     }
@@ -147,16 +167,25 @@ public class Infrastructure extends AbstractInfrastructure {
     }
 
     @Singleton
+    @Requires(property = "suite.backend", notEquals = "local")
     public record Factory(
-            RegionalClient<ComputeClient> computeClient,
-            RegionalClient<VirtualNetworkClient> vcnClient,
-            Compute compute,
+            InfrastructureProvider provider,
             HyperfoilRunner.Factory hyperfoilRunnerFactory,
-            SshFactory sshFactory,
             SutMonitor sutMonitor
-    ) {
-        Infrastructure create(OciLocation location, Path logDirectory) {
-            return new Infrastructure(this, location, logDirectory);
+    ) implements BenchmarkInfrastructure.Factory {
+        @Override
+        public BenchmarkInfrastructure create(int repetition, Path logDirectory) {
+            return new Infrastructure(this, repetition, logDirectory);
+        }
+
+        @Override
+        public int serverCoreCount() {
+            return provider.coreCount(SERVER_INSTANCE_TYPE);
+        }
+
+        @Override
+        public void clean() {
+            provider.clean();
         }
     }
 }
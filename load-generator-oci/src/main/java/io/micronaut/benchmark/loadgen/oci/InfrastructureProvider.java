@@ -0,0 +1,83 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import org.apache.sshd.client.session.ClientSession;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Provisions the machines that an {@link Infrastructure} runs the benchmark server and the hyperfoil cluster on.
+ * {@link OciInfrastructureProvider} launches OCI compute instances, {@link DockerInfrastructureProvider} launches
+ * containers on this machine. The provider is selected with {@code suite.backend}.
+ * <p>
+ * Instances are addressed by their private IP in the layout of the OCI network ({@code 10.0.0.0/16}). Providers that
+ * can't use that range for every network map it using {@link Network#address(String)}.
+ */
+public interface InfrastructureProvider {
+    /**
+     * Set up a new network that instances can be launched in.
+     *
+     * @param repetition The suite repetition this network is for
+     * @param logDirectory Directory for logs of the network setup
+     */
+    Network createNetwork(int repetition, Path logDirectory, PhaseTracker.PhaseUpdater progress) throws Exception;
+
+    /**
+     * Remove anything left behind by previous suite runs.
+     */
+    void clean();
+
+    /**
+     * Number of cores of the given instance type.
+     */
+    int coreCount(String instanceType);
+
+    interface Network extends AutoCloseable {
+        /**
+         * Launch an instance. This does not wait for the instance to start, see {@link Instance#awaitStartup()}.
+         *
+         * @param instanceType The configured instance type, e.g. {@code benchmark-server}
+         * @param privateIp The private IP of the instance in the OCI layout
+         */
+        Instance launch(String instanceType, String privateIp) throws Exception;
+
+        /**
+         * The address that other instances in this network reach the given private IP at.
+         */
+        String address(String privateIp);
+
+        /**
+         * Number of cores of the given instance type, see {@link InfrastructureProvider#coreCount(String)}.
+         */
+        int coreCount(String instanceType);
+
+        /**
+         * Open the benchmark ports of a freshly started instance.
+         */
+        void openFirewallPorts(ClientSession session, OutputListener... log) throws IOException;
+
+        /**
+         * Start tearing down the network. {@link #close()} waits for it to finish. Instances are terminated
+         * separately.
+         */
+        void terminateAsync();
+    }
+
+    /**
+     * Handle for an instance launched by {@link Network#launch}. Each provider has its own implementation that knows
+     * how to reach the instance.
+     */
+    interface Instance extends AutoCloseable {
+        void awaitStartup() throws Exception;
+
+        /**
+         * Open an SSH session to this instance, waiting for the SSH server to come up if necessary.
+         */
+        ClientSession connect() throws Exception;
+
+        /**
+         * Start terminating this instance. {@link #close()} waits for it to finish.
+         */
+        void terminateAsync();
+    }
+}
@@ -3,18 +3,25 @@ package io.micronaut.benchmark.loadgen.oci;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import io.micronaut.core.annotation.Nullable;
 import jakarta.inject.Singleton;
-import org.apache.sshd.client.channel.ChannelExec;
-import org.apache.sshd.client.session.ClientSession;
-import org.apache.sshd.scp.client.ScpClientCreator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Singleton
@@ -22,17 +29,22 @@ public class JavaRunFactory {
     private static final Logger LOG = LoggerFactory.getLogger(JavaRunFactory.class);
     private static final String SHADOW_JAR_LOCATION = "shadow.jar";
     private static final String PROFILER_LOCATION = "/tmp/libasyncProfiler.so";
+    private static final String UNPACKED_LOCATION = "unpacked";
+    private static final String STARTUP_SCRIPT_LOCATION = "startup.sh";
+    private static final String CRAC_JDK_LOCATION = "crac-jdk";
 
     private final HotspotConfiguration hotspotConfiguration;
     private final NativeImageConfiguration nativeImageConfiguration;
     private final AsyncProfilerConfiguration asyncProfilerConfiguration;
     private final PerfStatConfiguration perfStatConfiguration;
+    private final StartupConfiguration startupConfiguration;
 
-    public JavaRunFactory(HotspotConfiguration hotspotConfiguration, NativeImageConfiguration nativeImageConfiguration, AsyncProfilerConfiguration asyncProfilerConfiguration, PerfStatConfiguration perfStatConfiguration) {
+    public JavaRunFactory(HotspotConfiguration hotspotConfiguration, NativeImageConfiguration nativeImageConfiguration, AsyncProfilerConfiguration asyncProfilerConfiguration, PerfStatConfiguration perfStatConfiguration, StartupConfiguration startupConfiguration) {
         this.hotspotConfiguration = hotspotConfiguration;
         this.nativeImageConfiguration = nativeImageConfiguration;
         this.asyncProfilerConfiguration = asyncProfilerConfiguration;
         this.perfStatConfiguration = perfStatConfiguration;
+        this.startupConfiguration = startupConfiguration;
     }
 
     private static String optionsToString(String opts) {
@@ -54,7 +66,22 @@ public class JavaRunFactory {
         @Nullable
         private Object compileConfiguration;
         private byte[] boundLine;
+        @Nullable
+        private String unpackedMainClass;
         private final String additionalNativeImageOptions;
+        private final Map<StartupConfiguration.Mode, Predicate<Map<String, String>>> startupModeConditions = new EnumMap<>(StartupConfiguration.Mode.class);
+        private Predicate<Map<String, String>> nativeCondition = runtimeConfiguration -> true;
+        private Predicate<Map<String, String>> runtimeCondition = runtimeConfiguration -> true;
+        private Predicate<Map<String, String>> needleFirst = runtimeConfiguration -> false;
+        private final Map<String, List<String>> runtimeVariants = new LinkedHashMap<>();
+        /**
+         * System properties passed to every run, see {@link #systemProperty}.
+         */
+        private final Map<String, String> systemProperties = new LinkedHashMap<>();
+        /**
+         * System property name for each runtime variant dimension.
+         */
+        private final Map<String, String> runtimeProperties = new HashMap<>();
 
         private RunBuilder(String typePrefix) {
             this.typePrefix = typePrefix;
@@ -97,8 +124,103 @@ public class JavaRunFactory {
             return this;
         }
 
+        /**
+         * The jar is a spring boot executable jar. Startup runs unpack it and launch this main class on a flat class
+         * path, because CDS cannot archive classes loaded from nested jars.
+         */
+        public RunBuilder unpackedMainClass(String mainClass) {
+            this.unpackedMainClass = mainClass;
+            return this;
+        }
+
+        /**
+         * Only create startup runs with the given mode for runtime configurations that match the condition. Spring AOT,
+         * for example, fixes the profile-dependent beans at build time.
+         */
+        public RunBuilder startupModeCondition(StartupConfiguration.Mode mode, Predicate<Map<String, String>> condition) {
+            startupModeConditions.put(mode, condition);
+            return this;
+        }
+
+        /**
+         * Only create native image runs for runtime configurations that match the condition, e.g. to skip libraries
+         * that generate classes at runtime.
+         */
+        public RunBuilder nativeCondition(Predicate<Map<String, String>> condition) {
+            this.nativeCondition = condition;
+            return this;
+        }
+
+        /**
+         * Only create runs for runtime configurations that match the condition, e.g. to skip combinations of runtime
+         * variants that the test case does not support.
+         */
+        public RunBuilder runtimeCondition(Predicate<Map<String, String>> condition) {
+            this.runtimeCondition = condition;
+            return this;
+        }
+
+        /**
+         * Runtime configurations that match the condition parse the /search/find body incrementally, see
+         * {@link FrameworkRun#needleFirst()}.
+         */
+        public RunBuilder needleFirst(Predicate<Map<String, String>> condition) {
+            this.needleFirst = condition;
+            return this;
+        }
+
+        /**
+         * A system property that is passed to the server in every run, e.g. facts about the benchmark server that the
+         * test case configuration depends on. Unlike {@link #runtimeVariants}, this is not part of the run name.
+         */
+        public RunBuilder systemProperty(String name, String value) {
+            systemProperties.put(name, value);
+            return this;
+        }
+
+        /**
+         * Runtime variants of the test case, e.g. from {@code [variants.pure-netty.runtime-variants]}. Every
+         * combination of these is benchmarked as a separate run, and the chosen values are passed to the server as
+         * {@code -D<propertyPrefix>.<dimension>=<value>} system properties. May be called multiple times with different
+         * prefixes, as long as the dimension names are distinct.
+         */
+        public RunBuilder runtimeVariants(String propertyPrefix, @Nullable Map<String, List<String>> runtimeVariants) {
+            if (runtimeVariants != null) {
+                runtimeVariants.forEach((dimension, values) -> {
+                    if (this.runtimeVariants.put(dimension, values) != null) {
+                        throw new IllegalArgumentException("Duplicate runtime variant dimension: " + dimension);
+                    }
+                    runtimeProperties.put(dimension, propertyPrefix + "." + dimension);
+                });
+            }
+            return this;
+        }
+
         public Stream<FrameworkRun> build() {
-            return Stream.concat(
+            return Variants.<String, String>cartesianProduct(runtimeVariants).stream()
+                    .filter(runtimeCondition)
+                    .flatMap(this::build);
+        }
+
+        private Stream<FrameworkRun> build(Map<String, String> runtimeConfiguration) {
+            String configString;
+            if (runtimeConfiguration.isEmpty()) {
+                configString = this.configString;
+            } else if (this.configString == null) {
+                configString = Variants.variantName(runtimeConfiguration);
+            } else {
+                configString = this.configString + "-" + Variants.variantName(runtimeConfiguration);
+            }
+            String runtimeOptions = Stream.concat(
+                            systemProperties.entrySet().stream(),
+                            runtimeConfiguration.entrySet().stream().map(e -> Map.entry(runtimeProperties.get(e.getKey()), e.getValue()))
+                    )
+                    .map(e -> " -D" + e.getKey() + "=" + e.getValue())
+                    .collect(Collectors.joining());
+            Stream<FrameworkRun> startupRuns = startupConfiguration.modes(typePrefix).stream()
+                    .filter(mode -> startupModeConditions.getOrDefault(mode, c -> true).test(runtimeConfiguration))
+                    .map(mode -> startupRun(mode, configString, runtimeConfiguration, runtimeOptions));
+            return Stream.concat(Stream.concat(
                     hotspotConfiguration.optionChoices().stream().map(hotspotOptions -> new FrameworkRun() {
                         @Override
                         public String type() {
@@ -116,51 +238,55 @@ public class JavaRunFactory {
 
                         @Override
                         public Object parameters() {
-                            return new HotspotParameters(compileConfiguration, combinedOptions());
+                            return new HotspotParameters(compileConfiguration, runtimeConfiguration, combinedOptions());
                         }
 
-                        record HotspotParameters(@JsonUnwrapped Object compileConfiguration, String hotspotOptions) {}
+                        record HotspotParameters(@JsonUnwrapped Object compileConfiguration, Map<String, String> runtimeConfiguration, String hotspotOptions) {}
+
+                        @Override
+                        public boolean needleFirst() {
+                            return needleFirst.test(runtimeConfiguration);
+                        }
 
                         @Override
-                        public void setupAndRun(ClientSession benchmarkServerClient, Path outputDirectory, OutputListener.Write log, BenchmarkClosure benchmarkClosure, PhaseTracker.PhaseUpdater progress) throws Exception {
+                        public void setupAndRun(ServerHost benchmarkServer, Path outputDirectory, OutputListener.Write log, BenchmarkClosure benchmarkClosure, PhaseTracker.PhaseUpdater progress) throws Exception {
                             progress.update(BenchmarkPhase.INSTALLING_SOFTWARE);
-                            SshUtil.run(benchmarkServerClient, "sudo yum install jdk-" + hotspotConfiguration.version() + "-headless -y", log, 0, 1);
+                            if (benchmarkServer.provisioned()) {
+                                benchmarkServer.run("sudo yum install jdk-" + hotspotConfiguration.version() + "-headless -y", log, 0, 1);
+                            }
                             progress.update(BenchmarkPhase.DEPLOYING_SERVER);
-                            ScpClientCreator.instance().createScpClient(benchmarkServerClient)
-                                    .upload(shadowJar, SHADOW_JAR_LOCATION);
+                            benchmarkServer.upload(shadowJar, SHADOW_JAR_LOCATION);
                             String start = perfStatConfiguration.asCommandPrefix() + "java ";
                             if (asyncProfilerConfiguration.enabled()) {
-                                SshUtil.run(benchmarkServerClient, "sudo sysctl kernel.perf_event_paranoid=1", log);
-                                SshUtil.run(benchmarkServerClient, "sudo sysctl kernel.kptr_restrict=0", log);
-                                ScpClientCreator.instance().createScpClient(benchmarkServerClient)
-                                        .upload(asyncProfilerConfiguration.path(), PROFILER_LOCATION);
+                                if (benchmarkServer.provisioned()) {
+                                    benchmarkServer.run("sudo sysctl kernel.perf_event_paranoid=1", log);
+                                    benchmarkServer.run("sudo sysctl kernel.kptr_restrict=0", log);
+                                }
+                                benchmarkServer.upload(asyncProfilerConfiguration.path(), PROFILER_LOCATION);
                                 start += "-agentpath:" + PROFILER_LOCATION + "=" + asyncProfilerConfiguration.args() + " ";
                             }
                             LOG.info("Starting benchmark server (hotspot, " + typePrefix + ")");
-                            try (ChannelExec cmd = benchmarkServerClient.createExecChannel(start + combinedOptions() + " -jar " + SHADOW_JAR_LOCATION)) {
-                                OutputListener.Waiter waiter = new OutputListener.Waiter(ByteBuffer.wrap(boundLine));
-                                SshUtil.forwardOutput(cmd, log, waiter);
-                                cmd.open().verify();
+                            OutputListener.Waiter waiter = new OutputListener.Waiter(ByteBuffer.wrap(boundLine));
+                            try (ServerHost.Command cmd = benchmarkServer.start(start + combinedOptions() + runtimeOptions + " -jar " + SHADOW_JAR_LOCATION, log, waiter)) {
                                 waiter.awaitWithNextPattern(null);
 
                                 try {
                                     benchmarkClosure.benchmark(progress);
                                 } finally {
-                                    SshUtil.interrupt(cmd);
+                                    cmd.interrupt();
                                     TimeUnit.SECONDS.sleep(1);
-                                    SshUtil.signal(cmd, "KILL");
+                                    cmd.kill();
                                 }
                             }
                             if (asyncProfilerConfiguration.enabled()) {
                                 LOG.info("Downloading async-profiler results");
                                 for (String output : asyncProfilerConfiguration.outputs()) {
-                                    ScpClientCreator.instance().createScpClient(benchmarkServerClient)
-                                            .download(output, outputDirectory.resolve(output));
+                                    benchmarkServer.download(output, outputDirectory.resolve(output));
                                 }
                             }
                         }
                     }),
-                    nativeImageConfiguration.optionChoices().stream().map(nativeImageOptions -> new FrameworkRun() {
+                    (nativeCondition.test(runtimeConfiguration) ? nativeImageConfiguration.optionChoices().stream() : Stream.<String>empty()).map(nativeImageOptions -> new FrameworkRun() {
                         @Override
                         public String type() {
                             return typePrefix + "-native";
@@ -173,58 +299,178 @@ public class JavaRunFactory {
 
                         @Override
                         public Object parameters() {
-                            return new NativeImageParameters(compileConfiguration, nativeImageOptions);
+                            return new NativeImageParameters(compileConfiguration, runtimeConfiguration, nativeImageOptions);
                         }
 
-                        record NativeImageParameters(@JsonUnwrapped Object compileConfiguration, String nativeImageOptions) {}
+                        record NativeImageParameters(@JsonUnwrapped Object compileConfiguration, Map<String, String> runtimeConfiguration, String nativeImageOptions) {}
+
+                        @Override
+                        public boolean needleFirst() {
+                            return needleFirst.test(runtimeConfiguration);
+                        }
 
                         @Override
-                        public void setupAndRun(ClientSession benchmarkServerClient, Path outputDirectory, OutputListener.Write log, BenchmarkClosure benchmarkClosure, PhaseTracker.PhaseUpdater progress) throws Exception {
+                        public void setupAndRun(ServerHost benchmarkServer, Path outputDirectory, OutputListener.Write log, BenchmarkClosure benchmarkClosure, PhaseTracker.PhaseUpdater progress) throws Exception {
 
                             progress.update(BenchmarkPhase.INSTALLING_SOFTWARE);
-                            SshUtil.run(benchmarkServerClient, "sudo yum install graalvm22-ee-17-jdk -y", log, 0, 1);
-                            SshUtil.run(benchmarkServerClient, "sudo yum update oraclelinux-release-el9 -y", log, 0, 1);
-                            SshUtil.run(benchmarkServerClient, "sudo yum config-manager --set-enabled ol9_codeready_builder", log, 0, 1);
-                            SshUtil.run(benchmarkServerClient, "sudo yum install graalvm22-ee-17-native-image -y", log, 0, 1);
+                            if (benchmarkServer.provisioned()) {
+                                benchmarkServer.run("sudo yum install graalvm22-ee-17-jdk -y", log, 0, 1);
+                                benchmarkServer.run("sudo yum update oraclelinux-release-el9 -y", log, 0, 1);
+                                benchmarkServer.run("sudo yum config-manager --set-enabled ol9_codeready_builder", log, 0, 1);
+                                benchmarkServer.run("sudo yum install graalvm22-ee-17-native-image -y", log, 0, 1);
+                            }
                             progress.update(BenchmarkPhase.DEPLOYING_SERVER);
-                            ScpClientCreator.instance().createScpClient(benchmarkServerClient)
-                                    .upload(shadowJar, SHADOW_JAR_LOCATION);
+                            benchmarkServer.upload(shadowJar, SHADOW_JAR_LOCATION);
                             progress.update(BenchmarkPhase.BUILDING_PGO_IMAGE);
                             String niCommandBase = "native-image --no-fallback " + nativeImageOptions + " " + additionalNativeImageOptions;
-                            SshUtil.run(benchmarkServerClient, niCommandBase + " --pgo-instrument -jar " + SHADOW_JAR_LOCATION + " pgo-instrument", log);
-                            LOG.info("Starting benchmark server for PGO (native, micronaut)");
-                            try (ChannelExec cmd = benchmarkServerClient.createExecChannel(perfStatConfiguration.asCommandPrefix() + "./pgo-instrument")) {
-                                OutputListener.Waiter waiter = new OutputListener.Waiter(ByteBuffer.wrap(boundLine));
-                                SshUtil.forwardOutput(cmd, log, waiter);
-                                cmd.open().verify();
-                                waiter.awaitWithNextPattern(null);
+                            benchmarkServer.run(niCommandBase + " --pgo-instrument -jar " + SHADOW_JAR_LOCATION + " pgo-instrument", log);
+                            LOG.info("Starting benchmark server for PGO (native, " + typePrefix + ")");
+                            OutputListener.Waiter pgoWaiter = new OutputListener.Waiter(ByteBuffer.wrap(boundLine));
+                            try (ServerHost.Command cmd = benchmarkServer.start(perfStatConfiguration.asCommandPrefix() + "./pgo-instrument" + runtimeOptions, log, pgoWaiter)) {
+                                pgoWaiter.awaitWithNextPattern(null);
 
                                 try {
                                     benchmarkClosure.pgoLoad(progress);
                                 } finally {
-                                    SshUtil.interrupt(cmd);
-                                    SshUtil.joinAndCheck(cmd, 130);
+                                    cmd.interrupt();
+                                    cmd.joinAndCheck(130);
                                 }
                             }
                             progress.update(BenchmarkPhase.BUILDING_IMAGE);
-                            SshUtil.run(benchmarkServerClient, niCommandBase + " --pgo -jar " + SHADOW_JAR_LOCATION + " optimized", log);
+                            benchmarkServer.run(niCommandBase + " --pgo -jar " + SHADOW_JAR_LOCATION + " optimized", log);
                             LOG.info("Starting benchmark server (native, " + typePrefix + ")");
-                            try (ChannelExec cmd = benchmarkServerClient.createExecChannel(perfStatConfiguration.asCommandPrefix() + "./optimized")) {
-                                OutputListener.Waiter waiter = new OutputListener.Waiter(ByteBuffer.wrap(boundLine));
-                                SshUtil.forwardOutput(cmd, log, waiter);
-                                cmd.open().verify();
+                            OutputListener.Waiter waiter = new OutputListener.Waiter(ByteBuffer.wrap(boundLine));
+                            try (ServerHost.Command cmd = benchmarkServer.start(perfStatConfiguration.asCommandPrefix() + "./optimized" + runtimeOptions, log, waiter)) {
                                 waiter.awaitWithNextPattern(null);
 
                                 try {
                                     benchmarkClosure.benchmark(progress);
                                 } finally {
-                                    SshUtil.interrupt(cmd);
-                                    SshUtil.joinAndCheck(cmd, 130);
+                                    cmd.interrupt();
+                                    cmd.joinAndCheck(130);
                                 }
                             }
                         }
                     })
-            );
+            ), startupRuns);
         }
+
+        private FrameworkRun startupRun(StartupConfiguration.Mode mode, @Nullable String configString, Map<String, String> runtimeConfiguration, String runtimeOptions) {
+            return new FrameworkRun() {
+                @Override
+                public String type() {
+                    return typePrefix + "-startup";
+                }
+
+                @Override
+                public String name() {
+                    return typePrefix + "-startup-" + configString + "-" + mode.name().toLowerCase(Locale.ROOT).replace('_', '-');
+                }
+
+                @Override
+                public Object parameters() {
+                    return new StartupParameters(compileConfiguration, runtimeConfiguration, hotspotConfiguration.commonOptions(), mode);
+                }
+
+                record StartupParameters(@JsonUnwrapped Object compileConfiguration, Map<String, String> runtimeConfiguration, String hotspotOptions, StartupConfiguration.Mode startupMode) {}
+
+                @Override
+                public boolean needleFirst() {
+                    return needleFirst.test(runtimeConfiguration);
+                }
+
+                @Override
+                public void setupAndRun(ServerHost benchmarkServer, Path outputDirectory, OutputListener.Write log, BenchmarkClosure benchmarkClosure, PhaseTracker.PhaseUpdater progress) throws Exception {
+                    progress.update(BenchmarkPhase.INSTALLING_SOFTWARE);
+                    String java;
+                    if (mode == StartupConfiguration.Mode.CRAC) {
+                        if (startupConfiguration.cracJdk() == null) {
+                            throw new IllegalStateException("The crac startup mode needs a CRaC-enabled JDK, see variants.hotspot.startup.crac-jdk");
+                        }
+                        if (!benchmarkServer.provisioned()) {
+                            // criu has to be setuid root, which we only set up on machines we provisioned
+                            throw new IllegalStateException("The crac startup mode needs a setuid root criu, which is only set up on provisioned benchmark servers. Remove crac from the startup modes for local infrastructure");
+                        }
+                        benchmarkServer.run("mkdir -p " + CRAC_JDK_LOCATION + " && curl -sSfL " + startupConfiguration.cracJdk() + " | tar -xz --strip-components=1 -C " + CRAC_JDK_LOCATION, log);
+                        // criu has to run as root to checkpoint and restore the process
+                        benchmarkServer.run("sudo chown root:root " + CRAC_JDK_LOCATION + "/lib/criu && sudo chmod u+s " + CRAC_JDK_LOCATION + "/lib/criu", log);
+                        java = CRAC_JDK_LOCATION + "/bin/java";
+                    } else {
+                        if (benchmarkServer.provisioned()) {
+                            benchmarkServer.run("sudo yum install jdk-" + hotspotConfiguration.version() + "-headless -y", log, 0, 1);
+                        }
+                        java = "java";
+                    }
+                    progress.update(BenchmarkPhase.DEPLOYING_SERVER);
+                    benchmarkServer.upload(shadowJar, SHADOW_JAR_LOCATION);
+                    try (InputStream script = JavaRunFactory.class.getResourceAsStream("/startup.sh")) {
+                        benchmarkServer.upload(script, STARTUP_SCRIPT_LOCATION);
+                    }
+                    String launch;
+                    if (unpackedMainClass == null) {
+                        launch = "-jar " + SHADOW_JAR_LOCATION;
+                    } else {
+                        if (benchmarkServer.provisioned()) {
+                            benchmarkServer.run("sudo yum install unzip -y", log, 0, 1);
+                        }
+                        benchmarkServer.run("rm -rf " + UNPACKED_LOCATION + " && unzip -q " + SHADOW_JAR_LOCATION + " -d " + UNPACKED_LOCATION, log);
+                        launch = "-cp '" + UNPACKED_LOCATION + "/BOOT-INF/classes:" + UNPACKED_LOCATION + "/BOOT-INF/lib/*' " + unpackedMainClass;
+                    }
+                    String options = hotspotConfiguration.commonOptions() + runtimeOptions;
+
+                    if (mode.trainingOptions != null) {
+                        progress.update(BenchmarkPhase.TRAINING);
+                        LOG.info("Starting training run (" + mode + ", " + typePrefix + ")");
+                        benchmarkServer.run("rm -rf " + StartupConfiguration.CDS_ARCHIVE + " " + StartupConfiguration.CRAC_CHECKPOINT + " startup-first-response", log);
+                        if (mode == StartupConfiguration.Mode.CRAC) {
+                            // spring checkpoints on refresh, and the process is killed once the checkpoint is written
+                            try (ServerHost.Command cmd = benchmarkServer.start(java + " " + options + " " + mode.trainingOptions + " " + launch, log)) {
+                                cmd.await();
+                            }
+                            benchmarkServer.run("ls " + StartupConfiguration.CRAC_CHECKPOINT + "/*.img", log);
+                        } else {
+                            // the archive is written when the JVM exits, after it served a request
+                            try (ServerHost.Command cmd = benchmarkServer.start("sh " + STARTUP_SCRIPT_LOCATION + " " + java + " " + options + " " + mode.trainingOptions + " " + launch, log)) {
+                                awaitFirstResponse(benchmarkServer, log);
+                                cmd.interrupt();
+                                cmd.joinAndCheck(130);
+                            }
+                            benchmarkServer.run("ls -l " + StartupConfiguration.CDS_ARCHIVE, log);
+                        }
+                    }
+
+                    String server = mode == StartupConfiguration.Mode.CRAC ?
+                            java + " " + mode.runOptions :
+                            java + " " + options + " " + mode.runOptions + " " + launch;
+                    LOG.info("Starting benchmark server (startup, " + mode + ", " + typePrefix + ")");
+                    benchmarkServer.run("rm -f startup-first-response", log);
+                    try (ServerHost.Command cmd = benchmarkServer.start("sh " + STARTUP_SCRIPT_LOCATION + " " + perfStatConfiguration.asCommandPrefix() + server, log)) {
+                        try {
+                            awaitFirstResponse(benchmarkServer, log);
+                            ByteArrayOutputStream times = new ByteArrayOutputStream();
+                            try (OutputListener.Write write = new OutputListener.Write(times)) {
+                                benchmarkServer.run("cat startup-launch startup-first-response", write);
+                            }
+                            String[] lines = times.toString(StandardCharsets.UTF_8).trim().split("\\s+");
+                            long launchedAt = Long.parseLong(lines[0]);
+                            long firstResponseAt = Long.parseLong(lines[1]);
+                            log.println("Time to first response: " + (firstResponseAt - launchedAt) + "ms");
+                            benchmarkClosure.startup(progress, launchedAt, firstResponseAt);
+                        } finally {
+                            cmd.interrupt();
+                            TimeUnit.SECONDS.sleep(1);
+                            cmd.kill();
+                        }
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Wait for the {@code startup.sh} probe to record the first successful response.
+     */
+    private static void awaitFirstResponse(ServerHost benchmarkServer, OutputListener.Write log) throws IOException {
+        benchmarkServer.run("timeout 330 sh -c 'until test -s startup-first-response; do sleep 0.1; done'", log);
     }
 }
@@ -2,8 +2,11 @@ package io.micronaut.benchmark.loadgen.oci;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import io.hyperfoil.http.config.ConnectionStrategy;
 import io.micronaut.context.annotation.ConfigurationProperties;
 import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.bind.annotation.Bindable;
 import jakarta.inject.Singleton;
 
 import java.io.ByteArrayOutputStream;
@@ -11,9 +14,12 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Singleton
 public class LoadManager {
@@ -26,40 +32,95 @@ public class LoadManager {
     }
 
     public List<LoadVariant> getLoadVariants() {
-        return loadConfiguration.documents.stream()
-                .flatMap(doc -> {
-                    byte[] testBody = createTestBody(doc);
-                    return loadConfiguration.protocols.stream().map(prot -> new LoadVariant(loadName(prot.protocol(), doc), prot, doc.stringCount, doc.stringLength, testBody));
-                })
+        // streaming runs get the same documents with the needle first, see FrameworkRun.needleFirst
+        return Stream.of(false, true)
+                .flatMap(needleFirst -> loadConfiguration.documents.stream().flatMap(doc -> {
+                    byte[] testBody = createTestBody(doc, needleFirst);
+                    List<MixedRequest> requests = createRequests(doc, testBody, needleFirst);
+                    return loadConfiguration.protocols.stream().map(prot -> new LoadVariant(loadName(prot, doc), prot, doc.stringCount, doc.stringLength, needleFirst, requests, testBody));
+                }))
                 .toList();
     }
 
-    private static String loadName(Protocol protocol, LoadConfiguration.DocumentConfiguration doc) {
-        return protocol.name().toLowerCase(Locale.ROOT) + "-" + doc.stringCount + "-" + doc.stringLength;
+    private List<MixedRequest> createRequests(LoadConfiguration.DocumentConfiguration doc, byte[] testBody, boolean needleFirst) {
+        if (loadConfiguration.mix == null || loadConfiguration.mix.isEmpty()) {
+            return List.of(new MixedRequest(MixedRequest.DEFAULT_METRIC, MixedRequest.Type.FIND, 1, testBody));
+        }
+        List<MixedRequest> requests = new ArrayList<>();
+        Set<String> metrics = new HashSet<>();
+        for (LoadConfiguration.MixConfiguration entry : loadConfiguration.mix) {
+            String metric = entry.type.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            byte[] body = null;
+            if (entry.type.hasBody()) {
+                if ((entry.stringCount == null) != (entry.stringLength == null)) {
+                    throw new IllegalArgumentException("Mix entries need both string-count and string-length, or neither");
+                }
+                if (entry.stringCount == null) {
+                    // the document of the load variant
+                    body = testBody;
+                    metric += "-" + doc.stringCount + "-" + doc.stringLength;
+                } else {
+                    body = createTestBody(new LoadConfiguration.DocumentConfiguration(entry.stringCount, entry.stringLength), needleFirst);
+                    metric += "-" + entry.stringCount + "-" + entry.stringLength;
+                }
+            }
+            if (!metrics.add(metric)) {
+                throw new IllegalArgumentException("Duplicate mix entry " + metric);
+            }
+            requests.add(new MixedRequest(metric, entry.type, entry.weight, body));
+        }
+        return requests;
     }
 
-    private static byte[] createTestBody(LoadConfiguration.DocumentConfiguration configuration) {
+    private String loadName(ProtocolSettings protocol, LoadConfiguration.DocumentConfiguration doc) {
+        String name = protocol.protocol().name().toLowerCase(Locale.ROOT);
+        if (protocol.pipeliningLimit() > 1) {
+            // distinguish pipelined loads from the normal load of the same protocol
+            name += "-pipelined" + protocol.pipeliningLimit();
+        }
+        if (protocol.connectionStrategy() == ConnectionStrategy.ALWAYS_NEW) {
+            // a new connection per request, so this mostly measures the handshake
+            name += "-handshake";
+        }
+        if (protocol.shape() != LoadShape.CONSTANT_RATE) {
+            name += "-" + protocol.shape().name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+        if (loadConfiguration.mix != null && !loadConfiguration.mix.isEmpty()) {
+            name += "-mixed";
+        }
+        return name + "-" + doc.stringCount + "-" + doc.stringLength;
+    }
+
+    private static byte[] createTestBody(LoadConfiguration.DocumentConfiguration configuration, boolean needleFirst) {
         Random rng = new Random(0);
+        List<byte[]> strings = new ArrayList<>();
+        for (int i = 0; i < configuration.stringCount; i++) {
+            byte[] str = new byte[configuration.stringLength];
+            for (int j = 0; j < str.length; j++) {
+                str[j] = ALPHABET[rng.nextInt(ALPHABET.length)];
+            }
+            strings.add(str);
+        }
+        int i = rng.nextInt(strings.size());
+        int j = rng.nextInt(configuration.stringLength - 3);
+
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (JsonGenerator generator = JsonFactory.builder().build().createGenerator(baos)) {
             generator.writeStartObject();
+            if (needleFirst) {
+                generator.writeFieldName("needle");
+                generator.writeUTF8String(strings.get(i), j, 3);
+            }
             generator.writeFieldName("haystack");
             generator.writeStartArray();
-            List<byte[]> strings = new ArrayList<>();
-            for (int i = 0; i < configuration.stringCount; i++) {
-                byte[] str = new byte[configuration.stringLength];
-                for (int j = 0; j < str.length; j++) {
-                    str[j] = ALPHABET[rng.nextInt(ALPHABET.length)];
-                }
-                strings.add(str);
+            for (byte[] str : strings) {
                 generator.writeUTF8String(str, 0, str.length);
             }
             generator.writeEndArray();
-            generator.writeFieldName("needle");
-            int i = rng.nextInt(strings.size());
-            int j = rng.nextInt(configuration.stringLength - 3);
-            generator.writeUTF8String(strings.get(i), j, 3);
-
+            if (!needleFirst) {
+                generator.writeFieldName("needle");
+                generator.writeUTF8String(strings.get(i), j, 3);
+            }
             generator.writeEndObject();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -68,9 +129,26 @@ public class LoadManager {
     }
 
     @ConfigurationProperties("load")
-    record LoadConfiguration(List<ProtocolSettings> protocols, List<DocumentConfiguration> documents) {
+    record LoadConfiguration(List<ProtocolSettings> protocols, List<DocumentConfiguration> documents, @Nullable List<MixConfiguration> mix) {
         @EachProperty(value = "documents", list = true)
         record DocumentConfiguration(int stringCount, int stringLength) {
         }
+
+        /**
+         * @param type The request to send
+         * @param weight Share of the load, relative to the other mix entries
+         * @param stringCount Document size for requests with a body. If this and {@code stringLength} are unset, the
+         *                    document of the load variant is used
+         * @param stringLength Document size for requests with a body
+         */
+        @EachProperty(value = "mix", list = true)
+        record MixConfiguration(
+                MixedRequest.Type type,
+                @Bindable(defaultValue = "1")
+                double weight,
+                @Nullable Integer stringCount,
+                @Nullable Integer stringLength
+        ) {
+        }
     }
 }
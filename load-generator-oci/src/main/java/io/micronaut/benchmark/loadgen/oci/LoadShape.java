@@ -0,0 +1,47 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+/**
+ * Shape of the main benchmark phases of a {@link ProtocolSettings}. The warmup, PGO and startup phases are not
+ * affected. Each shape interprets {@link ProtocolSettings#ops()} differently. The main phases are always named
+ * {@code main/<i>}.
+ */
+public enum LoadShape {
+    /**
+     * Open model. One phase of {@code hyperfoil.benchmark-duration} per {@code ops} entry, each starting that many
+     * requests per second regardless of how fast the server responds. This gives the latency/throughput curve.
+     */
+    CONSTANT_RATE,
+    /**
+     * Closed model. One phase of {@code hyperfoil.benchmark-duration} per {@code ops} entry, each with that many
+     * concurrent sessions that send the next request as soon as the previous response arrives. The throughput of a
+     * phase is what the server sustains at that concurrency, so the sweep shows the saturation throughput. Each
+     * session needs its own connection unless requests are pipelined or multiplexed, so
+     * {@link ProtocolSettings#sharedConnections()} must be at least the highest concurrency.
+     */
+    CLOSED,
+    /**
+     * Open model with linear ramps. One phase of {@code hyperfoil.benchmark-duration} between each two consecutive
+     * {@code ops} entries, with the rate going from the first to the second.
+     */
+    RAMP,
+    /**
+     * Open model step function. One constant rate phase of {@link ProtocolSettings#stepDuration()} per {@code ops}
+     * entry. With short steps, e.g. {@code ops=[10000, 100000, 10000]}, the phases after a step show how the server
+     * recovers from a burst.
+     */
+    STEPS,
+    /**
+     * Open model with a sinusoidal ("diurnal") rate between the two {@code ops} entries, starting at the low point.
+     * The curve has the period {@link ProtocolSettings#period()} (by default a single period) and runs for {@code hyperfoil.benchmark-duration}. It
+     * is approximated by linear ramps of {@link ProtocolSettings#stepDuration()}, each its own phase.
+     */
+    SINUSOIDAL,
+    /**
+     * Binary search for the highest constant rate between the two {@code ops} entries at which the SLA of the
+     * {@link SaturationConfiguration} holds. After the warmup, each probe is a separate benchmark of
+     * {@link SaturationConfiguration#probeDuration()}, and the rate that was found is then confirmed with a single
+     * {@code main/0} phase of {@code hyperfoil.benchmark-duration}. The result is written to
+     * {@code saturation.json}.
+     */
+    SATURATION,
+}
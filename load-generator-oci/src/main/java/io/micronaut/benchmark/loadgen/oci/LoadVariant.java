@@ -2,12 +2,16 @@ package io.micronaut.benchmark.loadgen.oci;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import java.util.List;
+
 public record LoadVariant(
         @JsonIgnore
         String name,
         ProtocolSettings protocol,
         int stringCount,
         int stringLength,
+        boolean needleFirst,
+        List<MixedRequest> requests,
         @JsonIgnore
         byte[] body
 ) {
@@ -0,0 +1,146 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.scheduling.TaskExecutors;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the benchmark server and a standalone hyperfoil controller as processes on this machine, without any SSH. This
+ * is meant for quick regression checks on one big machine: the server and the load generator share the hardware, so
+ * the numbers are not comparable to OCI runs. Use {@link LocalConfiguration#serverCpus()} and
+ * {@link LocalConfiguration#hyperfoilCpus()} to keep them off each other's cores.
+ */
+public final class LocalInfrastructure implements BenchmarkInfrastructure {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalInfrastructure.class);
+
+    static final String SERVER_IP = "127.0.0.1";
+    static final int HYPERFOIL_CONTROLLER_PORT = 8090;
+
+    /**
+     * The server ports and the controller port are fixed, so only one benchmark can run at a time.
+     */
+    private static final Lock RUN_LOCK = new ReentrantLock();
+
+    private final Factory factory;
+    private final Path logDirectory;
+
+    private boolean stopped;
+
+    private LocalInfrastructure(Factory factory, Path logDirectory) {
+        this.factory = factory;
+        this.logDirectory = logDirectory;
+    }
+
+    @Override
+    public void run(Path outputDirectory, FrameworkRun run, LoadVariant loadVariant, PhaseTracker.PhaseUpdater progress) throws Exception {
+        if (stopped) {
+            throw new InterruptedException("Already stopped");
+        }
+        RUN_LOCK.lockInterruptibly();
+        try {
+            try {
+                Files.createDirectories(outputDirectory);
+            } catch (FileAlreadyExistsException ignored) {
+            }
+
+            AbstractInfrastructure.retry(() -> {
+                try {
+                    run0(outputDirectory, run, loadVariant, progress);
+                } catch (Exception e) {
+                    LOG.error("Benchmark run failed, may retry", e);
+                    throw e;
+                }
+                return null;
+            });
+        } finally {
+            RUN_LOCK.unlock();
+        }
+    }
+
+    private void run0(Path outputDirectory, FrameworkRun run, LoadVariant loadVariant, PhaseTracker.PhaseUpdater progress) throws Exception {
+        LocalServerHost benchmarkServerHost = new LocalServerHost(logDirectory.resolve("server"), factory.executor, factory.config.serverCpus());
+        try (HyperfoilRunner hyperfoilRunner = factory.hyperfoilRunnerFactory.launchLocal(outputDirectory, factory.config);
+             OutputListener.Write log = new OutputListener.Write(Files.newOutputStream(outputDirectory.resolve("server.log")))) {
+            factory.sutMonitor.monitorAndRun(
+                    benchmarkServerHost,
+                    outputDirectory,
+                    () -> {
+                        run.setupAndRun(
+                                benchmarkServerHost,
+                                outputDirectory,
+                                log,
+                                hyperfoilRunner.benchmarkClosure(outputDirectory, loadVariant.protocol(), loadVariant.body(), loadVariant.requests()),
+                                progress);
+                        return null;
+                    }
+            );
+        }
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+    }
+
+    @Singleton
+    @Requires(property = "suite.backend", value = "local")
+    public record Factory(
+            LocalConfiguration config,
+            HyperfoilRunner.Factory hyperfoilRunnerFactory,
+            SutMonitor sutMonitor,
+            @Named(TaskExecutors.IO) ExecutorService executor
+    ) implements BenchmarkInfrastructure.Factory {
+        @Override
+        public BenchmarkInfrastructure create(int repetition, Path logDirectory) {
+            return new LocalInfrastructure(this, logDirectory);
+        }
+
+        @Override
+        public int serverCoreCount() {
+            if (config.serverCpus() == null) {
+                return Runtime.getRuntime().availableProcessors();
+            }
+            // taskset -c list, e.g. 0-3,8,10-11
+            int count = 0;
+            for (String range : config.serverCpus().split(",")) {
+                String[] bounds = range.trim().split("-");
+                count += bounds.length == 1 ? 1 : Integer.parseInt(bounds[1]) - Integer.parseInt(bounds[0]) + 1;
+            }
+            return count;
+        }
+
+        @Override
+        public void clean() {
+        }
+    }
+
+    /**
+     * @param serverCpus CPU list the benchmark server is pinned to, in {@code taskset -c} syntax (e.g. {@code 0-7}),
+     *                   or {@code null} to leave it unpinned
+     * @param hyperfoilCpus CPU list the hyperfoil controller is pinned to. The benchmarks have no agents, so this is
+     *                      where the load is generated
+     * @param hyperfoilThreads Number of hyperfoil threads generating load, or {@code 0} for the hyperfoil default
+     * @param hyperfoilLocation Hyperfoil distribution to run the controller from. Defaults to the distribution that
+     *                          is uploaded to the OCI controller
+     */
+    @ConfigurationProperties("local")
+    public record LocalConfiguration(
+            @Nullable String serverCpus,
+            @Nullable String hyperfoilCpus,
+            int hyperfoilThreads,
+            @Nullable Path hyperfoilLocation
+    ) {
+    }
+}
@@ -0,0 +1,149 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.core.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ServerHost} that runs commands as local processes in a working directory. Commands are run with
+ * {@code sh -c}, so they may use the same shell syntax as over SSH.
+ */
+public final class LocalServerHost implements ServerHost {
+    private final Path workingDirectory;
+    private final ExecutorService executor;
+    @Nullable
+    private final String cpus;
+
+    /**
+     * @param workingDirectory The directory relative paths are resolved against
+     * @param executor Executor for forwarding the output of {@link #start started} commands
+     * @param cpus CPU list that {@link #start started} commands are pinned to using {@code taskset}, or {@code null}
+     *             to leave them unpinned
+     */
+    public LocalServerHost(Path workingDirectory, ExecutorService executor, @Nullable String cpus) throws IOException {
+        this.workingDirectory = workingDirectory.toAbsolutePath();
+        this.executor = executor;
+        this.cpus = cpus;
+        try {
+            Files.createDirectories(this.workingDirectory);
+        } catch (FileAlreadyExistsException ignored) {
+        }
+    }
+
+    @Override
+    public boolean provisioned() {
+        return false;
+    }
+
+    private Process launch(String command) throws IOException {
+        return new ProcessBuilder("sh", "-c", command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    private static void checkStatus(Process process, int... expectedStatus) throws IOException {
+        int status;
+        try {
+            status = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            throw new InterruptedIOException();
+        }
+        int[] allowed = expectedStatus.length == 0 ? new int[]{0} : expectedStatus;
+        if (IntStream.of(allowed).noneMatch(i -> i == status)) {
+            throw new IOException("Exit status: " + status);
+        }
+    }
+
+    @Override
+    public void run(String command, OutputListener log, int... allowedStatus) throws IOException {
+        Process process = launch(command);
+        process.getOutputStream().close();
+        try (OutputStream out = new OutputListener.Stream(List.of(log))) {
+            process.getInputStream().transferTo(out);
+        }
+        checkStatus(process, allowedStatus);
+    }
+
+    @Override
+    public Command start(String command, OutputListener... listeners) throws IOException {
+        // exec, so that signals reach the command and not the shell
+        Process process = launch("exec " + (cpus == null ? "" : "taskset -c " + cpus + " ") + command);
+        process.getOutputStream().close();
+        Future<?> forwarder = executor.submit(MdcTracker.copyMdc(() -> {
+            try (OutputStream out = new OutputListener.Stream(List.of(listeners))) {
+                process.getInputStream().transferTo(out);
+            }
+            return null;
+        }));
+        return new Command() {
+            private void signal(String signal) throws IOException {
+                run("kill -" + signal + " " + process.pid(), new OutputListener.Write(OutputStream.nullOutputStream()), 0, 1);
+            }
+
+            @Override
+            public void interrupt() throws IOException {
+                signal("INT");
+            }
+
+            @Override
+            public void kill() {
+                process.descendants().forEach(ProcessHandle::destroyForcibly);
+                process.destroyForcibly();
+            }
+
+            @Override
+            public void await() throws IOException {
+                checkStatus(process, IntStream.range(0, 256).toArray());
+            }
+
+            @Override
+            public void joinAndCheck(int... expectedStatus) throws IOException {
+                checkStatus(process, expectedStatus);
+            }
+
+            @Override
+            public boolean isAlive() {
+                return process.isAlive();
+            }
+
+            @Override
+            public void close() {
+                kill();
+                forwarder.cancel(true);
+            }
+        };
+    }
+
+    @Override
+    public void upload(Path local, String remote) throws IOException {
+        Files.copy(local, workingDirectory.resolve(remote), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void upload(InputStream data, String remote) throws IOException {
+        Files.copy(data, workingDirectory.resolve(remote), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public void download(String remote, Path local) throws IOException {
+        Files.copy(workingDirectory.resolve(remote), local, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public InputStream read(String path) throws IOException {
+        return Files.newInputStream(workingDirectory.resolve(path));
+    }
+}
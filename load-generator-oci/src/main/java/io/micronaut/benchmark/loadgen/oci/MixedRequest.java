@@ -0,0 +1,75 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.hyperfoil.http.api.HttpMethod;
+import io.micronaut.core.annotation.Nullable;
+
+/**
+ * One request type of the load scenario. Without a {@code load.mix}, the scenario is a single {@link Type#FIND}
+ * request with the document of the load variant. With a mix, each request gets a share of the load by its weight, and
+ * its own statistics metric.
+ *
+ * @param metric Name of the statistics metric, and of the hyperfoil phase fork for mixes
+ * @param type The request to send
+ * @param weight Share of the load, relative to the other requests of the mix
+ * @param body The request body, or {@code null} for requests without a body
+ */
+public record MixedRequest(
+        String metric,
+        Type type,
+        double weight,
+        @JsonIgnore
+        @Nullable
+        byte[] body
+) {
+    /**
+     * Metric of the request when there is no mix.
+     */
+    static final String DEFAULT_METRIC = "test";
+
+    public enum Type {
+        /**
+         * {@code GET /status}.
+         */
+        STATUS(HttpMethod.GET, "/status", null, false),
+        /**
+         * {@code POST /search/find} with a JSON document.
+         */
+        FIND(HttpMethod.POST, "/search/find", "application/json", false),
+        /**
+         * {@code GET} of a path that does not exist, should be a 404.
+         */
+        NOT_FOUND(HttpMethod.GET, "/search/does-not-exist", null, true),
+        /**
+         * {@code GET /search/find}, should be a 405.
+         */
+        METHOD_NOT_ALLOWED(HttpMethod.GET, "/search/find", null, true),
+        /**
+         * {@code POST /search/find} with a JSON document that is declared as {@code text/plain}, should be a 415.
+         */
+        UNSUPPORTED_MEDIA_TYPE(HttpMethod.POST, "/search/find", "text/plain", true);
+
+        final HttpMethod method;
+        final String path;
+        @Nullable
+        final String contentType;
+        /**
+         * Whether any 4xx response is the expected outcome.
+         */
+        final boolean error;
+
+        Type(HttpMethod method, String path, @Nullable String contentType, boolean error) {
+            this.method = method;
+            this.path = path;
+            this.contentType = contentType;
+            this.error = error;
+        }
+
+        /**
+         * Whether this request sends the JSON document of the load variant or the mix entry.
+         */
+        boolean hasBody() {
+            return contentType != null;
+        }
+    }
+}
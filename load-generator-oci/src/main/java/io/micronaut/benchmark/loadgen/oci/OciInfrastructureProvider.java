@@ -0,0 +1,134 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import com.oracle.bmc.core.ComputeClient;
+import com.oracle.bmc.core.VirtualNetworkClient;
+import io.micronaut.context.annotation.Requires;
+import jakarta.inject.Singleton;
+import org.apache.sshd.client.session.ClientSession;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * {@link InfrastructureProvider} that creates a VCN with a relay server for each network, and launches OCI compute
+ * instances in it. Repetitions are spread over the configured {@link OciLocation}s.
+ */
+@Singleton
+@Requires(property = "suite.backend", value = "oci", defaultValue = "oci")
+public final class OciInfrastructureProvider implements InfrastructureProvider {
+    private final List<OciLocation> locations;
+    private final CompartmentCleaner compartmentCleaner;
+    private final RegionalClient<ComputeClient> computeClient;
+    private final RegionalClient<VirtualNetworkClient> vcnClient;
+    private final Compute compute;
+    private final SshFactory sshFactory;
+
+    OciInfrastructureProvider(List<OciLocation> locations,
+                              CompartmentCleaner compartmentCleaner,
+                              RegionalClient<ComputeClient> computeClient,
+                              RegionalClient<VirtualNetworkClient> vcnClient,
+                              Compute compute,
+                              SshFactory sshFactory) {
+        this.locations = locations;
+        this.compartmentCleaner = compartmentCleaner;
+        this.computeClient = computeClient;
+        this.vcnClient = vcnClient;
+        this.compute = compute;
+        this.sshFactory = sshFactory;
+    }
+
+    @Override
+    public Network createNetwork(int repetition, Path logDirectory, PhaseTracker.PhaseUpdater progress) throws Exception {
+        OciNetwork network = new OciNetwork(locations.get(repetition % locations.size()), logDirectory);
+        try {
+            network.setupBase(progress);
+        } catch (Exception e) {
+            try {
+                network.close();
+            } catch (Exception f) {
+                e.addSuppressed(f);
+            }
+            throw e;
+        }
+        return network;
+    }
+
+    @Override
+    public int coreCount(String instanceType) {
+        return compute.getCoreCount(instanceType);
+    }
+
+    @Override
+    public void clean() {
+        for (OciLocation location : locations) {
+            compartmentCleaner.cleanCompartment(location, false);
+        }
+    }
+
+    private final class OciNetwork extends AbstractInfrastructure implements Network {
+        OciNetwork(OciLocation location, Path logDirectory) {
+            super(location, logDirectory, vcnClient, computeClient, compute);
+        }
+
+        @Override
+        public Instance launch(String instanceType, String privateIp) throws Exception {
+            return new OciInstance(compute.builder(instanceType, location, privateSubnetId)
+                    .privateIp(privateIp)
+                    .launch(), privateIp);
+        }
+
+        @Override
+        public String address(String privateIp) {
+            return privateIp;
+        }
+
+        @Override
+        public int coreCount(String instanceType) {
+            return OciInfrastructureProvider.this.coreCount(instanceType);
+        }
+
+        @Override
+        public void openFirewallPorts(ClientSession session, OutputListener... log) throws IOException {
+            SshUtil.openFirewallPorts(session, log);
+        }
+
+        @Override
+        public void terminateAsync() {
+            terminateRelayAsync();
+        }
+
+        /**
+         * Compute instance in the private subnet, which we reach through the relay server of this network.
+         */
+        private final class OciInstance implements Instance {
+            private final Compute.Instance instance;
+            private final String privateIp;
+
+            OciInstance(Compute.Instance instance, String privateIp) {
+                this.instance = instance;
+                this.privateIp = privateIp;
+            }
+
+            @Override
+            public void awaitStartup() throws Exception {
+                instance.awaitStartup();
+            }
+
+            @Override
+            public ClientSession connect() throws Exception {
+                return sshFactory.connect(instance, privateIp, relay());
+            }
+
+            @Override
+            public void terminateAsync() {
+                instance.terminateAsync();
+            }
+
+            @Override
+            public void close() {
+                instance.close();
+            }
+        }
+    }
+}
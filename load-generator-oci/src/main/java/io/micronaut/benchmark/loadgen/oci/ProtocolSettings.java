@@ -1,8 +1,11 @@
 package io.micronaut.benchmark.loadgen.oci;
 
+import io.hyperfoil.http.config.ConnectionStrategy;
 import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.core.bind.annotation.Bindable;
 
+import java.time.Duration;
 import java.util.List;
 
 @EachProperty(value = "load.protocols", list = true)
@@ -13,7 +16,19 @@ public record ProtocolSettings(
         int pipeliningLimit,
         @Bindable(defaultValue = "1")
         int maxHttp2Streams,
+        // ALWAYS_NEW opens a new connection for every request, which makes the TLS handshake cost visible
+        @Bindable(defaultValue = "SHARED_POOL")
+        ConnectionStrategy connectionStrategy,
         int compileOps,
-        List<Integer> ops
+        List<Integer> ops,
+        // how the main phases use ops, see LoadShape
+        @Bindable(defaultValue = "CONSTANT_RATE")
+        LoadShape shape,
+        // phase duration of the STEPS shape, and ramp length of the SINUSOIDAL shape
+        @Bindable(defaultValue = "10s")
+        Duration stepDuration,
+        // period of the SINUSOIDAL shape, defaults to the benchmark duration
+        @Nullable
+        Duration period
 ) {
 }
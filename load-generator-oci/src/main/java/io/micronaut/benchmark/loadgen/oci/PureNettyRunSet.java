@@ -7,9 +7,15 @@ import java.util.List;
 
 @Singleton
 public class PureNettyRunSet implements FrameworkRunSet {
+    private final PureNettyVariantConfiguration variantConfiguration;
+    private final TlsVariantConfiguration tlsVariantConfiguration;
+    private final ResponseVariantConfiguration responseVariantConfiguration;
     private final JavaRunFactory javaRunFactory;
 
-    public PureNettyRunSet(JavaRunFactory javaRunFactory) {
+    public PureNettyRunSet(PureNettyVariantConfiguration variantConfiguration, TlsVariantConfiguration tlsVariantConfiguration, ResponseVariantConfiguration responseVariantConfiguration, JavaRunFactory javaRunFactory) {
+        this.variantConfiguration = variantConfiguration;
+        this.tlsVariantConfiguration = tlsVariantConfiguration;
+        this.responseVariantConfiguration = responseVariantConfiguration;
         this.javaRunFactory = javaRunFactory;
     }
 
@@ -17,6 +23,12 @@ public class PureNettyRunSet implements FrameworkRunSet {
     public List<? extends FrameworkRun> getRuns() {
         return javaRunFactory.createJavaRuns("pure-netty")
                 .shadowJar(Path.of("test-case-pure-netty/build/libs/test-case-pure-netty-all.jar"))
+                .runtimeVariants("pure-netty", variantConfiguration.runtimeVariants())
+                .runtimeVariants("tls", tlsVariantConfiguration.runtimeVariants())
+                .runtimeVariants("response", responseVariantConfiguration.runtimeVariants())
+                .needleFirst(runtimeConfiguration -> "streaming".equals(runtimeConfiguration.get("body")))
+                // the native image is built with graalvm for java 17, which has no virtual threads
+                .nativeCondition(runtimeConfiguration -> !"virtual-thread".equals(runtimeConfiguration.get("dispatch")))
                 .boundOn("Bound to https://0.0.0.0:8443")
                 .build().toList();
     }
@@ -0,0 +1,11 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties("variants.pure-netty")
+public record PureNettyVariantConfiguration(@Nullable Map<String, List<String>> runtimeVariants) {
+}
@@ -0,0 +1,15 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Response runtime variants shared by the micronaut, pure netty, vert.x and spring boot test cases. They are passed to
+ * the server as {@code -Dresponse.<dimension>=<value>}.
+ */
+@ConfigurationProperties("variants.response")
+public record ResponseVariantConfiguration(@Nullable Map<String, List<String>> runtimeVariants) {
+}
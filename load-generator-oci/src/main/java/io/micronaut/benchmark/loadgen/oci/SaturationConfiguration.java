@@ -0,0 +1,39 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.bind.annotation.Bindable;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link LoadShape#SATURATION} search. A probe passes the SLA if the latency at
+ * {@link #percentile} is at most {@link #maxLatency}, at most {@link #maxErrorRate} of the requests fail, and the
+ * server actually responds at {@link #minThroughputFraction} of the requested rate.
+ *
+ * @param probeDuration Duration of each probe phase
+ * @param maxProbes Maximum number of probes, including the probes at the search bounds
+ * @param resolution The search stops when the failing rate is within this fraction of the passing rate
+ * @param percentile The latency percentile the SLA applies to, e.g. {@code 99.0}
+ * @param maxLatency Highest allowed latency at {@link #percentile}
+ * @param maxErrorRate Highest allowed fraction of requests that failed (invalid response, connection error,
+ *                     timeout)
+ * @param minThroughputFraction Lowest allowed fraction of the requested rate that the server must respond at
+ */
+@ConfigurationProperties("hyperfoil.saturation")
+public record SaturationConfiguration(
+        @Bindable(defaultValue = "20s")
+        Duration probeDuration,
+        @Bindable(defaultValue = "10")
+        int maxProbes,
+        @Bindable(defaultValue = "0.05")
+        double resolution,
+        @Bindable(defaultValue = "99.0")
+        double percentile,
+        @Bindable(defaultValue = "10ms")
+        Duration maxLatency,
+        @Bindable(defaultValue = "0.001")
+        double maxErrorRate,
+        @Bindable(defaultValue = "0.95")
+        double minThroughputFraction
+) {
+}
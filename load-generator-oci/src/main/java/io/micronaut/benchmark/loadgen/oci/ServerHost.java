@@ -0,0 +1,58 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * The machine the benchmark server runs on, as seen by {@link FrameworkRun#setupAndRun}. Relative paths are relative
+ * to the working directory of the host, e.g. the home directory for SSH.
+ */
+public interface ServerHost {
+    /**
+     * Whether this host was provisioned for the benchmark, so that runs may install packages and change system
+     * settings using {@code sudo}. If not, the required software (JDK, native-image, unzip…) must already be on the
+     * {@code PATH}.
+     */
+    boolean provisioned();
+
+    /**
+     * Run a command to completion, failing if the exit status is not one of {@code allowedStatus} ({@code 0} if
+     * empty).
+     */
+    void run(String command, OutputListener log, int... allowedStatus) throws IOException;
+
+    /**
+     * Start a long-running command, e.g. the benchmark server.
+     */
+    Command start(String command, OutputListener... listeners) throws IOException;
+
+    void upload(Path local, String remote) throws IOException;
+
+    void upload(InputStream data, String remote) throws IOException;
+
+    void download(String remote, Path local) throws IOException;
+
+    InputStream read(String path) throws IOException;
+
+    interface Command extends AutoCloseable {
+        void interrupt() throws IOException;
+
+        void kill() throws IOException;
+
+        /**
+         * Wait for the command to exit, without checking its status.
+         */
+        void await() throws IOException;
+
+        /**
+         * Wait for the command to exit, failing if the exit status is not one of {@code expectedStatus}.
+         */
+        void joinAndCheck(int... expectedStatus) throws IOException;
+
+        boolean isAlive();
+
+        @Override
+        void close() throws IOException;
+    }
+}
@@ -4,12 +4,23 @@ import jakarta.inject.Singleton;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 @Singleton
 public class SpringBootRunSet implements FrameworkRunSet {
+    /**
+     * The jar is AOT-processed with the default stack, and spring AOT fixes the beans of that stack at build time.
+     */
+    private static final Predicate<Map<String, String>> AOT_STACK = runtimeConfiguration -> runtimeConfiguration.getOrDefault("stack", "mvc-virtual").equals("mvc-virtual");
+
+    private final SpringBootVariantConfiguration springBootVariantConfiguration;
+    private final ResponseVariantConfiguration responseVariantConfiguration;
     private final JavaRunFactory javaRunFactory;
 
-    public SpringBootRunSet(JavaRunFactory javaRunFactory) {
+    public SpringBootRunSet(SpringBootVariantConfiguration springBootVariantConfiguration, ResponseVariantConfiguration responseVariantConfiguration, JavaRunFactory javaRunFactory) {
+        this.springBootVariantConfiguration = springBootVariantConfiguration;
+        this.responseVariantConfiguration = responseVariantConfiguration;
         this.javaRunFactory = javaRunFactory;
     }
 
@@ -17,7 +28,12 @@ public class SpringBootRunSet implements FrameworkRunSet {
     public List<? extends FrameworkRun> getRuns() {
         return javaRunFactory.createJavaRuns("spring-boot")
                 .shadowJar(Path.of("test-case-spring-boot/build/libs/test-case-spring-boot.jar"))
+                .runtimeVariants("spring-boot", springBootVariantConfiguration.runtimeVariants())
+                .runtimeVariants("response", responseVariantConfiguration.runtimeVariants())
                 .boundOn("Started Main in")
+                .unpackedMainClass("org.example.Main")
+                .startupModeCondition(StartupConfiguration.Mode.AOT, AOT_STACK)
+                .startupModeCondition(StartupConfiguration.Mode.AOT_CDS, AOT_STACK)
                 .build().toList();
     }
 }
@@ -0,0 +1,120 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import org.apache.sshd.client.channel.ChannelExec;
+import org.apache.sshd.client.session.ClientSession;
+import org.apache.sshd.scp.client.ScpClientCreator;
+import org.apache.sshd.sftp.client.SftpClient;
+import org.apache.sshd.sftp.client.impl.DefaultSftpClientFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * {@link ServerHost} on a provisioned compute instance, reached over SSH. Closing this host closes the session.
+ */
+public final class SshServerHost implements ServerHost, AutoCloseable {
+    private final ClientSession session;
+    private SftpClient sftpClient;
+
+    public SshServerHost(ClientSession session) {
+        this.session = session;
+    }
+
+    public ClientSession session() {
+        return session;
+    }
+
+    @Override
+    public boolean provisioned() {
+        return true;
+    }
+
+    @Override
+    public void run(String command, OutputListener log, int... allowedStatus) throws IOException {
+        SshUtil.run(session, command, log, allowedStatus.length == 0 ? new int[]{0} : allowedStatus);
+    }
+
+    @Override
+    public Command start(String command, OutputListener... listeners) throws IOException {
+        ChannelExec cmd = session.createExecChannel(command);
+        try {
+            SshUtil.forwardOutput(cmd, listeners);
+            cmd.open().verify();
+        } catch (IOException e) {
+            cmd.close();
+            throw e;
+        }
+        return new Command() {
+            @Override
+            public void interrupt() throws IOException {
+                SshUtil.interrupt(cmd);
+            }
+
+            @Override
+            public void kill() throws IOException {
+                SshUtil.signal(cmd, "KILL");
+            }
+
+            @Override
+            public void await() {
+                cmd.waitFor(ClientSession.REMOTE_COMMAND_WAIT_EVENTS, 0);
+            }
+
+            @Override
+            public void joinAndCheck(int... expectedStatus) throws IOException {
+                SshUtil.joinAndCheck(cmd, expectedStatus.length == 0 ? new int[]{0} : expectedStatus);
+            }
+
+            @Override
+            public boolean isAlive() {
+                return cmd.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                cmd.close();
+            }
+        };
+    }
+
+    @Override
+    public void upload(Path local, String remote) throws IOException {
+        ScpClientCreator.instance().createScpClient(session).upload(local, remote);
+    }
+
+    @Override
+    public void upload(InputStream data, String remote) throws IOException {
+        try (ChannelExec cmd = session.createExecChannel("tee " + remote + " > /dev/null")) {
+            cmd.setIn(data);
+            cmd.open().await();
+            SshUtil.joinAndCheck(cmd);
+        }
+    }
+
+    @Override
+    public void download(String remote, Path local) throws IOException {
+        ScpClientCreator.instance().createScpClient(session).download(remote, local);
+    }
+
+    @Override
+    public synchronized InputStream read(String path) throws IOException {
+        if (sftpClient == null) {
+            sftpClient = DefaultSftpClientFactory.INSTANCE.createSftpClient(session);
+        }
+        return sftpClient.read(path);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            synchronized (this) {
+                if (sftpClient != null) {
+                    sftpClient.close();
+                }
+            }
+        } finally {
+            session.close();
+        }
+    }
+}
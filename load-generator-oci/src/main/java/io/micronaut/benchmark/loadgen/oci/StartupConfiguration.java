@@ -0,0 +1,87 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Configuration of the startup runs ({@code <prefix>-startup} run types). These measure the time from JVM launch to
+ * the first successful response, and then the throughput over {@link #phaseCount} consecutive short phases to see how
+ * quickly the server reaches its peak.
+ *
+ * @param modes The startup modes to benchmark for each run type prefix, e.g. {@code spring-boot}. Prefixes without
+ *              an entry get no startup runs
+ * @param phaseDuration Duration of each load phase
+ * @param phaseCount Number of load phases
+ * @param peakFraction The fraction of the peak throughput that counts as "warmed up" for the time-to-peak metric
+ * @param cracJdk URL of a CRaC-enabled JDK tarball. Only required for {@link Mode#CRAC}
+ */
+@ConfigurationProperties("variants.hotspot.startup")
+public record StartupConfiguration(
+        @Nullable Map<String, List<String>> modes,
+        Duration phaseDuration,
+        int phaseCount,
+        double peakFraction,
+        @Nullable String cracJdk
+) {
+    static final String CDS_ARCHIVE = "app.jsa";
+    static final String CRAC_CHECKPOINT = "crac-checkpoint";
+
+    List<Mode> modes(String typePrefix) {
+        if (modes == null) {
+            return List.of();
+        }
+        return modes.getOrDefault(typePrefix, List.of()).stream()
+                .map(s -> Mode.valueOf(s.toUpperCase(Locale.ROOT).replace('-', '_')))
+                .toList();
+    }
+
+    public enum Mode {
+        /**
+         * Plain launch, the baseline for the other modes.
+         */
+        DEFAULT(null, ""),
+        /**
+         * Static AppCDS archive, dumped at the exit of a training run.
+         */
+        CDS("-XX:ArchiveClassesAtExit=" + CDS_ARCHIVE, "-XX:SharedArchiveFile=" + CDS_ARCHIVE),
+        /**
+         * Dynamic CDS archive that the JVM creates by itself (JDK 19+). The training run creates it, the measured run
+         * uses it.
+         */
+        AUTO_CDS("-XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=" + CDS_ARCHIVE, "-XX:+AutoCreateSharedArchive -XX:SharedArchiveFile=" + CDS_ARCHIVE),
+        /**
+         * Spring AOT. The bean definitions are generated at build time by {@code processAot}, so this only works for
+         * the spring profile the jar was processed with.
+         */
+        AOT(null, "-Dspring.aot.enabled=true"),
+        /**
+         * {@link #AOT} and {@link #CDS} combined.
+         */
+        AOT_CDS("-Dspring.aot.enabled=true -XX:ArchiveClassesAtExit=" + CDS_ARCHIVE, "-Dspring.aot.enabled=true -XX:SharedArchiveFile=" + CDS_ARCHIVE),
+        /**
+         * CRaC. The training run checkpoints itself once the spring context is refreshed, and the measured run
+         * restores that checkpoint. Requires {@link #cracJdk}.
+         */
+        CRAC("-XX:CRaCCheckpointTo=" + CRAC_CHECKPOINT + " -Dspring.context.checkpoint=onRefresh", "-XX:CRaCRestoreFrom=" + CRAC_CHECKPOINT);
+
+        /**
+         * JVM options for the training run, or {@code null} if this mode needs no training run.
+         */
+        @Nullable
+        final String trainingOptions;
+        /**
+         * JVM options for the measured run.
+         */
+        final String runOptions;
+
+        Mode(@Nullable String trainingOptions, String runOptions) {
+            this.trainingOptions = trainingOptions;
+            this.runOptions = runOptions;
+        }
+    }
+}
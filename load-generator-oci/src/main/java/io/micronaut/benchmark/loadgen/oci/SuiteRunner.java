@@ -25,26 +25,19 @@ import java.util.concurrent.Semaphore;
 public class SuiteRunner {
     private static final Logger LOG = LoggerFactory.getLogger(SuiteRunner.class);
 
-    private final CompartmentCleaner compartmentCleaner;
-    private final List<OciLocation> locations;
-    private final Infrastructure.Factory infraFactory;
+    private final BenchmarkInfrastructure.Factory infraFactory;
     private final LoadManager loadManager;
     private final List<FrameworkRunSet> frameworks;
     private final ExecutorService executor;
     private final SuiteConfiguration suiteConfiguration;
     private final ObjectMapper objectMapper;
 
-    public SuiteRunner(CompartmentCleaner compartmentCleaner,
-                       List<OciLocation> locations,
-                       Infrastructure.Factory infraFactory,
+    public SuiteRunner(BenchmarkInfrastructure.Factory infraFactory,
                        LoadManager loadManager,
                        List<FrameworkRunSet> frameworks,
                        @Named(TaskExecutors.IO) ExecutorService executor,
                        SuiteConfiguration suiteConfiguration,
-                       ObjectMapper objectMapper,
-                       Compute compute) {
-        this.compartmentCleaner = compartmentCleaner;
-        this.locations = locations;
+                       ObjectMapper objectMapper) {
         this.infraFactory = infraFactory;
         this.loadManager = loadManager;
         this.frameworks = frameworks;
@@ -54,9 +47,7 @@ public class SuiteRunner {
     }
 
     public void clean() {
-        for (OciLocation location : locations) {
-            compartmentCleaner.cleanCompartment(location, false);
-        }
+        infraFactory.clean();
     }
 
     public void run() throws Exception {
@@ -69,14 +60,14 @@ public class SuiteRunner {
         List<LoadVariant> loadVariants = loadManager.getLoadVariants();
         List<Callable<Void>> allTasks = new ArrayList<>();
         List<BenchmarkParameters> index = new ArrayList<>();
-        List<Infrastructure> sharedInfra = new ArrayList<>();
+        List<BenchmarkInfrastructure> sharedInfra = new ArrayList<>();
         PhaseTracker phaseTracker = new PhaseTracker(objectMapper, outputDir);
         Semaphore semaphore = new Semaphore(suiteConfiguration.maxConcurrentRuns);
         for (int repetition = 0; repetition < suiteConfiguration.repetitions; repetition++) {
-            OciLocation location = locations.get(repetition % locations.size());
-            Infrastructure repInfra;
+            int finalRepetition = repetition;
+            BenchmarkInfrastructure repInfra;
             if (suiteConfiguration.infrastructureMode == InfrastructureMode.REUSE) {
-                repInfra = infraFactory.create(location, outputDir.resolve("infra-" + repetition));
+                repInfra = infraFactory.create(repetition, outputDir.resolve("infra-" + repetition));
                 sharedInfra.add(repInfra);
             } else {
                 repInfra = null;
@@ -87,6 +78,9 @@ public class SuiteRunner {
                         continue;
                     }
                     for (LoadVariant loadVariant : loadVariants) {
+                        if (loadVariant.needleFirst() != run.needleFirst()) {
+                            continue;
+                        }
                         String name = run.name() + "-" + loadVariant.name() + "-" + repetition;
                         index.add(new BenchmarkParameters(name, run.type(), run.parameters(), loadVariant, repetition));
                         PhaseTracker.PhaseUpdater phaseUpdater = phaseTracker.updater(name);
@@ -102,7 +96,7 @@ public class SuiteRunner {
                                         phaseUpdater.update(BenchmarkPhase.DONE);
                                     } else {
                                         semaphore.acquire();
-                                        try (Infrastructure infra = infraFactory.create(location, out)) {
+                                        try (BenchmarkInfrastructure infra = infraFactory.create(finalRepetition, out)) {
                                             infra.run(out, run, loadVariant, phaseUpdater);
                                             phaseUpdater.update(BenchmarkPhase.SHUTTING_DOWN);
                                         }
@@ -148,16 +142,14 @@ public class SuiteRunner {
                 future.get();
             }
         } finally {
-            for (Infrastructure infrastructure : sharedInfra) {
+            for (BenchmarkInfrastructure infrastructure : sharedInfra) {
                 try {
                     infrastructure.close();
                 } catch (Exception e) {
                     LOG.error("Failed to close shared infrastructure", e);
                 }
             }
-            for (OciLocation location : locations) {
-                compartmentCleaner.cleanCompartment(location, false);
-            }
+            clean();
         }
         progressTask.cancel(true);
         Files.move(newIndex, outputDir.resolve("index.json"), StandardCopyOption.REPLACE_EXISTING);
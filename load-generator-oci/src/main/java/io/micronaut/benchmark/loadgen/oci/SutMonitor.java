@@ -3,12 +3,10 @@ package io.micronaut.benchmark.loadgen.oci;
 import io.micronaut.scheduling.TaskExecutors;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
-import org.apache.sshd.client.session.ClientSession;
-import org.apache.sshd.sftp.client.SftpClient;
-import org.apache.sshd.sftp.client.impl.DefaultSftpClientFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
@@ -34,19 +32,20 @@ public class SutMonitor {
 
     @SuppressWarnings("UnusedReturnValue")
     public <R> R monitorAndRun(
-            ClientSession session,
+            ServerHost server,
             Path outputDirectory,
             Callable<R> task
     ) throws Exception {
         if (meminfoConfiguration.enabled()) {
-            try (OutputStream meminfo = Files.newOutputStream(outputDirectory.resolve("meminfo.log"));
-                 SftpClient sftpClient = DefaultSftpClientFactory.INSTANCE.createSftpClient(session)) {
+            try (OutputStream meminfo = Files.newOutputStream(outputDirectory.resolve("meminfo.log"))) {
 
                 Future<Object> future = executor.submit(MdcTracker.copyMdc(() -> {
                     try {
                         while (!Thread.interrupted()) {
                             meminfo.write((Instant.now().toString() + "\n").getBytes(StandardCharsets.UTF_8));
-                            sftpClient.read("/proc/meminfo").transferTo(meminfo);
+                            try (InputStream in = server.read("/proc/meminfo")) {
+                                in.transferTo(meminfo);
+                            }
                             TimeUnit.MILLISECONDS.sleep(meminfoConfiguration.interval().toMillis());
                         }
                     } catch (InterruptedException | InterruptedIOException ignored) {
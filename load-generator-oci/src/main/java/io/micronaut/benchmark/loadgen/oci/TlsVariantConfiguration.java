@@ -0,0 +1,15 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TLS runtime variants shared by the pure netty, vert.x and helidon test cases. They are passed to the server as
+ * {@code -Dtls.<dimension>=<value>}.
+ */
+@ConfigurationProperties("variants.tls")
+public record TlsVariantConfiguration(@Nullable Map<String, List<String>> runtimeVariants) {
+}
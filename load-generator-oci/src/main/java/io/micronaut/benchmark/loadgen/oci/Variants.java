@@ -0,0 +1,42 @@
+package io.micronaut.benchmark.loadgen.oci;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for expanding variant dimensions (e.g. {@code transport=["nio", "iouring"]}) into individual runs.
+ */
+public final class Variants {
+    private Variants() {
+    }
+
+    /**
+     * Name of a single variant combination, e.g. {@code transport-nio-json-jackson}.
+     */
+    public static String variantName(Map<String, String> configuration) {
+        StringBuilder builder = new StringBuilder();
+        for (Map.Entry<String, String> e : configuration.entrySet()) {
+            builder.append(e.getKey()).append('-').append(e.getValue()).append('-');
+        }
+        builder.setLength(builder.length() - 1); // remove trailing dash
+        return builder.toString();
+    }
+
+    public static <K, V> List<Map<K, V>> cartesianProduct(Map<? extends K, ? extends List<? extends V>> map) {
+        List<Map<K, V>> result = List.of(Map.of());
+        for (Map.Entry<? extends K, ? extends List<? extends V>> dimension : map.entrySet()) {
+            List<Map<K, V>> next = new ArrayList<>();
+            for (V value : dimension.getValue()) {
+                for (Map<K, V> previousMap : result) {
+                    Map<K, V> joined = new LinkedHashMap<>(previousMap);
+                    joined.put(dimension.getKey(), value);
+                    next.add(joined);
+                }
+            }
+            result = next;
+        }
+        return result;
+    }
+}
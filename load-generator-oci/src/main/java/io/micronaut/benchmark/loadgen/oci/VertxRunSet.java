@@ -4,12 +4,19 @@ import jakarta.inject.Singleton;
 
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
 @Singleton
 public class VertxRunSet implements FrameworkRunSet {
+    private final VertxVariantConfiguration vertxVariantConfiguration;
+    private final TlsVariantConfiguration tlsVariantConfiguration;
+    private final ResponseVariantConfiguration responseVariantConfiguration;
     private final JavaRunFactory javaRunFactory;
 
-    public VertxRunSet(JavaRunFactory javaRunFactory) {
+    public VertxRunSet(VertxVariantConfiguration vertxVariantConfiguration, TlsVariantConfiguration tlsVariantConfiguration, ResponseVariantConfiguration responseVariantConfiguration, JavaRunFactory javaRunFactory) {
+        this.vertxVariantConfiguration = vertxVariantConfiguration;
+        this.tlsVariantConfiguration = tlsVariantConfiguration;
+        this.responseVariantConfiguration = responseVariantConfiguration;
         this.javaRunFactory = javaRunFactory;
     }
 
@@ -17,7 +24,27 @@ public class VertxRunSet implements FrameworkRunSet {
     public List<? extends FrameworkRun> getRuns() {
         return javaRunFactory.createJavaRuns("vertx")
                 .shadowJar(Path.of("test-case-vertx/build/libs/test-case-vertx-all.jar"))
+                .runtimeVariants("vertx", vertxVariantConfiguration.runtimeVariants())
+                .runtimeVariants("tls", tlsVariantConfiguration.runtimeVariants())
+                .runtimeVariants("response", responseVariantConfiguration.runtimeVariants())
+                .runtimeCondition(VertxRunSet::tlsSupported)
+                .needleFirst(runtimeConfiguration -> "streaming".equals(runtimeConfiguration.get("body")))
                 .boundOn("Vertx bound")
+                // blackbird defines its accessor classes at runtime, which a native image cannot do
+                .nativeCondition(runtimeConfiguration -> !"blackbird".equals(runtimeConfiguration.get("json")))
                 .build().toList();
     }
+
+    /**
+     * vert.x only honors session tickets with the JDK provider, and of the session cache size only {@code 0} with the
+     * OpenSSL provider. The server rejects the other combinations, so we skip them.
+     */
+    private static boolean tlsSupported(Map<String, String> runtimeConfiguration) {
+        boolean openssl = "openssl".equals(runtimeConfiguration.get("provider"));
+        if (openssl && "true".equals(runtimeConfiguration.get("session-tickets"))) {
+            return false;
+        }
+        String sessionCacheSize = runtimeConfiguration.getOrDefault("session-cache-size", "-1");
+        return sessionCacheSize.equals("-1") || (openssl && sessionCacheSize.equals("0"));
+    }
 }
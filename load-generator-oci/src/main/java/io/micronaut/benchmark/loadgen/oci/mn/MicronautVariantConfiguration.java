@@ -1,10 +1,16 @@
 package io.micronaut.benchmark.loadgen.oci.mn;
 
 import io.micronaut.context.annotation.ConfigurationProperties;
+import io.micronaut.core.annotation.Nullable;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Micronaut variants. Compile variants are separate builds of the test case, runtime variants are passed to the server
+ * as {@code -Dserver.<dimension>=<value>}.
+ */
 @ConfigurationProperties("variants.micronaut")
-public record MicronautVariantConfiguration(Map<String, List<String>> compileVariants) {
+public record MicronautVariantConfiguration(Map<String, List<String>> compileVariants,
+                                            @Nullable Map<String, List<String>> runtimeVariants) {
 }
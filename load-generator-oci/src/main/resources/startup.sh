@@ -0,0 +1,15 @@
+#!/bin/sh
+# Launches the server command given as arguments, and records the launch time and the time of the first successful
+# /search/find response as epoch milliseconds. The server replaces this shell, so that signals reach it directly.
+date +%s%3N > startup-launch
+rm -f startup-first-response
+(
+  for i in $(seq 30000); do
+    if curl -s -f -o /dev/null -H 'Content-Type: application/json' -d '{"haystack":["foo","bar"],"needle":"ar"}' http://localhost:8080/search/find; then
+      date +%s%3N > startup-first-response
+      exit 0
+    fi
+    sleep 0.01
+  done
+) &
+exec "$@"
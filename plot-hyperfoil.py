@@ -163,7 +163,13 @@ def main():
         index = json.load(f)
     index = sorted(index, key=lambda i: i["name"])
     index = [i for i in index if not has_error(i["name"])]
-    discriminator_properties = [("type",), ("parameters", "compileConfiguration", "micronaut"), ("parameters", "compileConfiguration", "json"), ("parameters", "compileConfiguration", "transport"), ("parameters", "compileConfiguration", "tcnative")]
+    discriminator_properties = [("type",), ("parameters", "compileConfiguration", "micronaut"), ("parameters", "compileConfiguration", "json"), ("parameters", "compileConfiguration", "transport"), ("parameters", "compileConfiguration", "tcnative"), ("parameters", "compileConfiguration", "threading"), ("parameters", "compileConfiguration", "body")]
+    # runtime variants (e.g. pure-netty body mode) are discriminators too
+    for item in index:
+        for k in (item["parameters"].get("runtimeConfiguration") or {}).keys():
+            prop = ("parameters", "runtimeConfiguration", k)
+            if prop not in discriminator_properties:
+                discriminator_properties.append(prop)
     filter_properties = {
         #("type",): "mn-hotspot"
     }
@@ -16,6 +16,7 @@ plugins {
 rootProject.name = "micronaut-benchmark"
 
 include("load-generator-oci")
+include("test-case-shared")
 include("test-case-pure-netty")
 include("test-case-helidon-nima")
 include("test-case-spring-boot")
@@ -43,5 +44,30 @@ configure<io.micronaut.bench.AppVariants> {
             //variant("11")
             variant("17")
         }
+        // where SearchController.find runs
+        dimension("threading") {
+            variant("event-loop")
+            variant("blocking")
+            variant("io")
+            variant("virtual")
+            variant("mono")
+        }
+        // how the /search/find body is bound: @Body Input, or a Publisher of chunks fed into an incremental parser
+        dimension("body") {
+            variant("aggregated")
+            variant("streaming")
+        }
+        // netty version. "4.1.111" is the first with the AdaptiveByteBufAllocator, for the adaptive-allocator tuning
+        dimension("netty") {
+            variant("default")
+            variant("4.1.111")
+        }
+        // virtual threads need java 21 at runtime
+        exclude { it.contains("java-11") && it.contains("threading-virtual") }
+        // the streaming controller is non-blocking, so it takes the place of the event-loop controller, which lives in
+        // src/main/variants/threading-event-loop+body-aggregated
+        exclude { it.contains("body-streaming") && !it.contains("threading-event-loop") }
+        // the netty upgrade is only needed for the adaptive allocator, which is compared on the default controller
+        exclude { it.contains("netty-4.1.111") && !(it.contains("threading-event-loop") && it.contains("body-aggregated")) }
     }
 }
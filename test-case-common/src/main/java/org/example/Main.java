@@ -4,6 +4,21 @@ import io.micronaut.runtime.Micronaut;
 
 public class Main {
     public static void main(String[] args) {
-        Micronaut.run(args);
+        String tuning = System.getProperty("server.tuning", "default");
+        if (tuning.equals("adaptive-allocator")) {
+            if (Main.class.getClassLoader().getResource("io/netty/buffer/AdaptiveByteBufAllocator.class") == null) {
+                // older netty versions silently fall back to the pooled allocator
+                throw new IllegalStateException("The adaptive-allocator tuning needs the netty-4.1.111 compile variant");
+            }
+            // netty reads this once when the default allocator is initialized, so it must be set before the context
+            // starts. /status reports the allocator that is actually used
+            System.setProperty("io.netty.allocator.type", "adaptive");
+        }
+        Micronaut.build(args)
+                .mainClass(Main.class)
+                // application-tuning-<variant>.yml is the overlay of the -Dserver.tuning runtime variant,
+                // application-headers-<mode>.yml the overlay of the -Dresponse.headers runtime variant
+                .environments("tuning-" + tuning, "headers-" + System.getProperty("response.headers", "default"))
+                .start();
     }
 }
@@ -0,0 +1,31 @@
+package org.example;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MutableHttpResponse;
+
+import java.util.List;
+
+/**
+ * The {@code /search/find} logic. The {@code SearchController} of each threading variant only differs in where this
+ * runs. The body-streaming variant uses {@code StreamingFind} instead, but shares {@link #response}.
+ */
+final class Search {
+    private Search() {
+    }
+
+    static MutableHttpResponse<?> find(List<String> haystack, String needle) {
+        for (int listIndex = 0; listIndex < haystack.size(); listIndex++) {
+            String s = haystack.get(listIndex);
+            int stringIndex = s.indexOf(needle);
+            if (stringIndex != -1) {
+                return response(new Result(listIndex, stringIndex));
+            }
+        }
+        return response(null);
+    }
+
+    static MutableHttpResponse<?> response(@Nullable Result result) {
+        return result == null ? HttpResponse.notFound() : HttpResponse.ok(result);
+    }
+}
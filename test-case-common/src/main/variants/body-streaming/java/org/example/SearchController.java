@@ -0,0 +1,90 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import io.micronaut.core.io.buffer.ByteBuffer;
+import io.micronaut.core.io.buffer.ReferenceCounted;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import org.example.shared.StreamingFind;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking, so it runs on the event loop like the {@code threading-event-loop} controller. The body is bound as a
+ * {@link Publisher} of the netty buffers instead of an aggregated {@link Input}, and each chunk is fed into a
+ * {@link StreamingFind} as it arrives, without copying it. The response is sent as soon as the needle is found, without
+ * waiting for the rest of the body.
+ */
+@Controller("/search")
+public class SearchController {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    @Post("find")
+    public CompletableFuture<HttpResponse<?>> find(@Body Publisher<ByteBuffer<?>> body) throws IOException {
+        BodySubscriber subscriber = new BodySubscriber(new StreamingFind<>(JSON_FACTORY.createNonBlockingByteBufferParser(), Result::new));
+        body.subscribe(subscriber);
+        return subscriber.response;
+    }
+
+    private static final class BodySubscriber implements Subscriber<ByteBuffer<?>> {
+        final CompletableFuture<HttpResponse<?>> response = new CompletableFuture<>();
+        private final StreamingFind<Result> find;
+        private Subscription subscription;
+
+        BodySubscriber(StreamingFind<Result> find) {
+            this.find = find;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            s.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer<?> chunk) {
+            try {
+                if (response.isDone()) {
+                    return;
+                }
+                if (find.feed(chunk.asNioBuffer())) {
+                    response.complete(Search.response(find.finish()));
+                    subscription.cancel();
+                } else {
+                    subscription.request(1);
+                }
+            } catch (IOException e) {
+                response.complete(HttpResponse.badRequest());
+                subscription.cancel();
+            } finally {
+                // the parser is done with the chunk once feed returns
+                if (chunk instanceof ReferenceCounted) {
+                    ((ReferenceCounted) chunk).release();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            response.completeExceptionally(t);
+        }
+
+        @Override
+        public void onComplete() {
+            if (response.isDone()) {
+                return;
+            }
+            try {
+                response.complete(Search.response(find.finish()));
+            } catch (IOException e) {
+                response.complete(HttpResponse.badRequest());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.example;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Introspected
+@Serdeable
+public class Input {
+    private final List<String> haystack;
+    private final String needle;
+
+    public Input(List<String> haystack, String needle) {
+        this.haystack = haystack;
+        this.needle = needle;
+    }
+
+    List<String> haystack() {
+        return haystack;
+    }
+
+    String needle() {
+        return needle;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Introspected
+@Serdeable
+public class Result {
+    private final int listIndex;
+    private final int stringIndex;
+
+    public Result(int listIndex, int stringIndex) {
+        this.listIndex = listIndex;
+        this.stringIndex = stringIndex;
+    }
+}
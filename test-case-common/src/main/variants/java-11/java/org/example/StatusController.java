@@ -15,30 +15,40 @@
  */
 package org.example;
 
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
 import io.micronaut.http.netty.channel.EventLoopGroupFactory;
 import io.micronaut.json.JsonMapper;
 import io.micronaut.serde.annotation.Serdeable;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslProvider;
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+
 @Controller("/status")
 public class StatusController {
-    @Inject
-    JsonMapper jsonMapper;
+    /**
+     * The status does not depend on the request, so it is only serialized once.
+     */
+    private final byte[] status;
 
     @Inject
-    EventLoopGroupFactory eventLoopGroupFactory;
-
-    @Get
-    public Status getStatus() {
-        return new Status(
+    public StatusController(JsonMapper jsonMapper, EventLoopGroupFactory eventLoopGroupFactory) throws IOException {
+        this.status = jsonMapper.writeValueAsBytes(new Status(
                 eventLoopGroupFactory.serverSocketChannelClass().getName(),
                 SslContext.defaultServerProvider(),
-                jsonMapper.getClass().getName()
-        );
+                jsonMapper.getClass().getName(),
+                ByteBufAllocator.DEFAULT.getClass().getName()
+        ));
+    }
+
+    @Get
+    public HttpResponse<byte[]> getStatus() {
+        return HttpResponse.ok(status).contentType(MediaType.APPLICATION_JSON_TYPE);
     }
 
     @Serdeable
@@ -46,11 +56,13 @@ public class StatusController {
         final String serverSocketChannelImplementation;
         final SslProvider sslProvider;
         final String jsonMapperImplementation;
+        final String allocatorImplementation;
 
-        public Status(String serverSocketChannelImplementation, SslProvider sslProvider, String jsonMapperImplementation) {
+        public Status(String serverSocketChannelImplementation, SslProvider sslProvider, String jsonMapperImplementation, String allocatorImplementation) {
             this.serverSocketChannelImplementation = serverSocketChannelImplementation;
             this.sslProvider = sslProvider;
             this.jsonMapperImplementation = jsonMapperImplementation;
+            this.allocatorImplementation = allocatorImplementation;
         }
     }
 }
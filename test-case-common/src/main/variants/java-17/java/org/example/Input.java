@@ -0,0 +1,10 @@
+package org.example;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Introspected
+@Serdeable
+record Input(List<String> haystack, String needle) {}
@@ -0,0 +1,8 @@
+package org.example;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.serde.annotation.Serdeable;
+
+@Introspected
+@Serdeable
+record Result(int listIndex, int stringIndex) {}
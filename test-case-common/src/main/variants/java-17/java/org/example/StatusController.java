@@ -16,23 +16,43 @@
 package org.example;
 
 import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
 import io.micronaut.http.server.netty.NettyHttpRequest;
 import io.micronaut.json.JsonMapper;
 import io.micronaut.serde.annotation.Serdeable;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslProvider;
+import io.netty.util.concurrent.FastThreadLocal;
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
 @Controller("/status")
 public class StatusController {
     @Inject
     JsonMapper jsonMapper;
 
+    /**
+     * Serialized status bodies by server channel class. The status is constant for each channel class, so we only
+     * serialize it once per event loop.
+     */
+    private final FastThreadLocal<Map<Class<?>, byte[]>> statusCache = new FastThreadLocal<>() {
+        @Override
+        protected Map<Class<?>, byte[]> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
     @Get
-    public Status getStatus(HttpRequest<?> request) {
+    public HttpResponse<byte[]> getStatus(HttpRequest<?> request) {
         Channel ch = ((NettyHttpRequest<?>) request).getChannelHandlerContext().channel();
         while (true) {
             Channel parent = ch.parent();
@@ -41,15 +61,26 @@ public class StatusController {
             }
             ch = parent;
         }
-        return new Status(
-                ch.getClass().getName(),
-                SslContext.defaultServerProvider(),
-                jsonMapper.getClass().getName()
-        );
+        byte[] body = statusCache.get().computeIfAbsent(ch.getClass(), this::serializeStatus);
+        return HttpResponse.ok(body).contentType(MediaType.APPLICATION_JSON_TYPE);
+    }
+
+    private byte[] serializeStatus(Class<?> channelClass) {
+        try {
+            return jsonMapper.writeValueAsBytes(new Status(
+                    channelClass.getName(),
+                    SslContext.defaultServerProvider(),
+                    jsonMapper.getClass().getName(),
+                    ByteBufAllocator.DEFAULT.getClass().getName()
+            ));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Serdeable
     record Status(String serverSocketChannelImplementation,
                   SslProvider sslProvider,
-                  String jsonMapperImplementation) {}
+                  String jsonMapperImplementation,
+                  String allocatorImplementation) {}
 }
@@ -0,0 +1,21 @@
+package org.example;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+
+/**
+ * Offloaded to the executor for blocking operations. micronaut backs this with virtual threads when the JVM supports
+ * them, and with the {@link TaskExecutors#IO} pool otherwise.
+ */
+@Controller("/search")
+public class SearchController {
+    @Post("find")
+    @ExecuteOn(TaskExecutors.BLOCKING)
+    public HttpResponse<?> find(@Body Input input) {
+        return Search.find(input.haystack(), input.needle());
+    }
+}
@@ -0,0 +1,17 @@
+package org.example;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+
+/**
+ * Runs on the netty event loop that read the request, the micronaut default for non-reactive methods.
+ */
+@Controller("/search")
+public class SearchController {
+    @Post("find")
+    public HttpResponse<?> find(@Body Input input) {
+        return Search.find(input.haystack(), input.needle());
+    }
+}
@@ -0,0 +1,20 @@
+package org.example;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import io.micronaut.scheduling.TaskExecutors;
+import io.micronaut.scheduling.annotation.ExecuteOn;
+
+/**
+ * Offloaded to the cached platform thread pool.
+ */
+@Controller("/search")
+public class SearchController {
+    @Post("find")
+    @ExecuteOn(TaskExecutors.IO)
+    public HttpResponse<?> find(@Body Input input) {
+        return Search.find(input.haystack(), input.needle());
+    }
+}
@@ -0,0 +1,18 @@
+package org.example;
+
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Body;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Post;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive return type. The search still runs on the event loop, this measures the cost of going through reactor.
+ */
+@Controller("/search")
+public class SearchController {
+    @Post("find")
+    public Mono<HttpResponse<?>> find(@Body Input input) {
+        return Mono.fromSupplier(() -> Search.find(input.haystack(), input.needle()));
+    }
+}
@@ -0,0 +1,88 @@
+package org.example;
+
+import com.dslplatform.json.DslJson;
+import com.dslplatform.json.JsonWriter;
+import com.dslplatform.json.ParsingException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.helidon.http.BadRequestException;
+import io.helidon.http.HeaderValues;
+import io.helidon.webserver.http.ServerRequest;
+import io.helidon.webserver.http.ServerResponse;
+
+import java.io.IOException;
+
+/**
+ * JSON implementation for the {@code /search/find} bodies. Bodies that can't be parsed are reported as
+ * {@link BadRequestException}, which helidon answers with 400.
+ */
+interface JsonCodec {
+    Main.Input read(ServerRequest request) throws IOException;
+
+    void send(ServerResponse response, Main.Result result) throws IOException;
+
+    static JsonCodec create(ServerOptions.Codec codec) {
+        return switch (codec) {
+            case JSONB -> new MediaSupport();
+            case DATABIND -> new Jackson(new ObjectMapper());
+            case BLACKBIRD -> new Jackson(JsonMapper.builder().addModule(new BlackbirdModule()).build());
+            case DSL_JSON -> new DslJsonCodec(new DslJson<>(new DslJson.Settings<>().includeServiceLoader()));
+        };
+    }
+
+    /**
+     * The helidon media support, which picks JSON-B because that is the only JSON media module on the classpath. This
+     * is what the test case used before there was a choice.
+     */
+    final class MediaSupport implements JsonCodec {
+        @Override
+        public Main.Input read(ServerRequest request) {
+            try {
+                return request.content().as(Main.Input.class);
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Failed to decode: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void send(ServerResponse response, Main.Result result) {
+            response.send(result);
+        }
+    }
+
+    record Jackson(ObjectMapper mapper) implements JsonCodec {
+        @Override
+        public Main.Input read(ServerRequest request) throws IOException {
+            try {
+                return mapper.readValue(request.content().inputStream(), Main.Input.class);
+            } catch (JsonProcessingException e) {
+                throw new BadRequestException("Failed to decode: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void send(ServerResponse response, Main.Result result) throws IOException {
+            response.header(HeaderValues.CONTENT_TYPE_JSON).send(mapper.writeValueAsBytes(result));
+        }
+    }
+
+    record DslJsonCodec(DslJson<Object> dslJson) implements JsonCodec {
+        @Override
+        public Main.Input read(ServerRequest request) throws IOException {
+            try {
+                return dslJson.deserialize(Main.Input.class, request.content().inputStream());
+            } catch (ParsingException e) {
+                throw new BadRequestException("Failed to decode: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public void send(ServerResponse response, Main.Result result) throws IOException {
+            JsonWriter writer = dslJson.newWriter();
+            dslJson.serialize(writer, result);
+            response.header(HeaderValues.CONTENT_TYPE_JSON).send(writer.toByteArray());
+        }
+    }
+}
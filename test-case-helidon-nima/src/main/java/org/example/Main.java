@@ -1,8 +1,12 @@
 package org.example;
 
+import com.dslplatform.json.CompiledJson;
 import io.helidon.common.config.Config;
 import io.helidon.common.socket.SocketOptions;
 import io.helidon.common.tls.Tls;
+import io.helidon.http.BadRequestException;
+import io.helidon.http.HeaderValues;
+import io.helidon.webserver.ListenerConfig;
 import io.helidon.webserver.WebServer;
 import io.helidon.webserver.WebServerConfig;
 import io.helidon.webserver.http.HttpRouting;
@@ -10,51 +14,104 @@ import io.helidon.webserver.http1.Http1Config;
 import io.helidon.webserver.http1.Http1ConnectionSelector;
 import io.helidon.webserver.http2.Http2Config;
 import io.helidon.webserver.http2.Http2ConnectionSelector;
-import io.netty.handler.ssl.util.SelfSignedCertificate;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
 
+import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) throws CertificateException {
-        start(8080, 8443);
+        ServerOptions options = ServerOptions.fromSystemProperties();
+        options.tls.configureJdk();
+        start(8080, 8443, options);
         System.out.println("Helidon bound");
     }
 
     static WebServer start(int httpPort, int httpsPort) throws CertificateException {
-        SelfSignedCertificate ssc = new SelfSignedCertificate();
+        return start(httpPort, httpsPort, new ServerOptions());
+    }
+
+    static WebServer start(int httpPort, int httpsPort, ServerOptions options) throws CertificateException {
+        TlsOptions tlsOptions = options.tls;
+        X509Certificate certificate = tlsOptions.certificate();
+        Tls.Builder tls = Tls.builder()
+                .applicationProtocols(List.of("h2", "http/1.1"))
+                .addEnabledCipherSuite(tlsOptions.key.tls12Cipher())
+                .addEnabledCipherSuite("TLS_AES_128_GCM_SHA256")
+                .privateKey(tlsOptions.privateKey(certificate))
+                .privateKeyCertChain(List.of(certificate));
+        if (tlsOptions.sessionCacheSize != -1) {
+            tls.sessionCacheSize(tlsOptions.sessionCacheSize);
+        }
+        // the status never changes, so we only serialize it once
+        byte[] status = encode(new Status());
+        JsonCodec jsonCodec = JsonCodec.create(options.json);
         HttpRouting.Builder routing = HttpRouting.builder()
                 .post("/search/find", (req, res) -> {
-                    Input input = req.content().as(Input.class);
+                    Input input = switch (options.body) {
+                        case BINDING -> jsonCodec.read(req);
+                        case STREAMING -> StreamingInput.read(req.content().inputStream());
+                    };
+                    if (input.haystack == null || input.needle == null) {
+                        throw new BadRequestException("Missing haystack or needle");
+                    }
                     Result result = find(input.haystack, input.needle);
                     if (result == null) {
                         res.status(io.helidon.http.Status.NOT_FOUND_404).send();
                     } else {
-                        res.send(result);
+                        jsonCodec.send(res, result);
                     }
                 })
-                .get("/status", (req, res) -> res.send(new Status()));
+                .get("/status", (req, res) -> res.header(HeaderValues.CONTENT_TYPE_JSON).send(status));
+        Http2Config.Builder http2Config = Http2Config.builder();
+        if (options.h2InitialWindowSize != 0) {
+            http2Config.initialWindowSize(options.h2InitialWindowSize);
+        }
         WebServerConfig.Builder builder = WebServer.builder()
                 .config(Config.empty())
-                .putSocket("http", s -> s.host("0.0.0.0").port(httpPort).routing(routing)
-                        .connectionOptions(SocketOptions.builder()
+                .putSocket("http", s -> configureListener(s, options).host("0.0.0.0").port(httpPort).routing(routing)
+                        .connectionOptions(connectionOptions(options)
                                 .tcpNoDelay(true)
                                 .build())
                         .addConnectionSelector(Http1ConnectionSelector.builder().config(Http1Config.builder().build()).build()))
-                .putSocket("https", s -> s.tls(Tls.builder()
-                        .applicationProtocols(List.of("h2", "http/1.1"))
-                        .addEnabledCipherSuite("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256")
-                        .addEnabledCipherSuite("TLS_AES_128_GCM_SHA256")
-                        .privateKey(ssc.key())
-                        .privateKeyCertChain(List.of(ssc.cert()))
-                        .build())
+                .putSocket("https", s -> configureListener(s, options).tls(tls.build())
                         .host("0.0.0.0").port(httpsPort)
+                        .connectionOptions(connectionOptions(options).build())
                         .addConnectionSelector(Http1ConnectionSelector.builder().config(Http1Config.builder().build()).build())
-                        .addConnectionSelector(Http2ConnectionSelector.builder().http2Config(Http2Config.builder().build()).build())
+                        .addConnectionSelector(Http2ConnectionSelector.builder().http2Config(http2Config.build()).build())
                         .routing(routing));
         return builder.build().start();
     }
 
+    private static ListenerConfig.Builder configureListener(ListenerConfig.Builder listener, ServerOptions options) {
+        if (options.maxConcurrentRequests != 0) {
+            listener.maxConcurrentRequests(options.maxConcurrentRequests);
+        }
+        if (options.writeQueueLength != 0) {
+            listener.writeQueueLength(options.writeQueueLength);
+        }
+        return listener;
+    }
+
+    private static SocketOptions.Builder connectionOptions(ServerOptions options) {
+        SocketOptions.Builder socketOptions = SocketOptions.builder();
+        if (options.receiveBufferSize != 0) {
+            socketOptions.socketReceiveBufferSize(options.receiveBufferSize);
+        }
+        return socketOptions;
+    }
+
+    private static byte[] encode(Object value) {
+        try (Jsonb jsonb = JsonbBuilder.create()) {
+            return jsonb.toJson(value).getBytes(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode " + value, e);
+        }
+    }
+
     private static Result find(List<String> haystack, String needle) {
         for (int listIndex = 0; listIndex < haystack.size(); listIndex++) {
             String s = haystack.get(listIndex);
@@ -66,6 +123,7 @@ public class Main {
         return null;
     }
 
+    @CompiledJson
     public static final class Input {
         private List<String> haystack;
         private String needle;
@@ -87,6 +145,7 @@ public class Main {
         }
     }
 
+    @CompiledJson
     public static final class Result {
         private int listIndex;
         private int stringIndex;
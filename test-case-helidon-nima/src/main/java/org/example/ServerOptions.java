@@ -0,0 +1,131 @@
+package org.example;
+
+import java.util.Locale;
+
+/**
+ * Runtime options of the server, selected using {@code -Dhelidon.<option>=<value>} system properties. TLS options
+ * have their own prefix, see {@link TlsOptions}. Numeric options use {@code 0} for the helidon default.
+ */
+public final class ServerOptions {
+    private static final String PREFIX = "helidon.";
+
+    BodyMode body = BodyMode.BINDING;
+    Codec json = Codec.JSONB;
+    /**
+     * Maximum number of requests processed concurrently on one listener. Each request gets its own virtual thread,
+     * this limits how many are in flight.
+     */
+    int maxConcurrentRequests = 0;
+    /**
+     * Number of buffers queued for writing on a connection. With the default of {@code 0}, the request thread
+     * writes to the socket directly.
+     */
+    int writeQueueLength = 0;
+    /**
+     * {@code SO_RCVBUF} of accepted connections.
+     */
+    int receiveBufferSize = 0;
+    /**
+     * HTTP/2 initial stream window size. The helidon default is 1 MiB.
+     */
+    int h2InitialWindowSize = 0;
+    TlsOptions tls = new TlsOptions();
+
+    public static ServerOptions fromSystemProperties() {
+        ServerOptions options = new ServerOptions();
+        options.body = enumProperty("body", options.body);
+        options.json = enumProperty("json", options.json);
+        options.maxConcurrentRequests = Integer.getInteger(PREFIX + "max-concurrent-requests", options.maxConcurrentRequests);
+        options.writeQueueLength = Integer.getInteger(PREFIX + "write-queue-length", options.writeQueueLength);
+        options.receiveBufferSize = Integer.getInteger(PREFIX + "receive-buffer-size", options.receiveBufferSize);
+        options.h2InitialWindowSize = Integer.getInteger(PREFIX + "h2-initial-window-size", options.h2InitialWindowSize);
+        options.tls = TlsOptions.fromSystemProperties();
+        return options;
+    }
+
+    private static <E extends Enum<E>> E enumProperty(String name, E defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public ServerOptions body(BodyMode body) {
+        this.body = body;
+        return this;
+    }
+
+    public ServerOptions json(Codec json) {
+        this.json = json;
+        return this;
+    }
+
+    public ServerOptions maxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        return this;
+    }
+
+    public ServerOptions writeQueueLength(int writeQueueLength) {
+        this.writeQueueLength = writeQueueLength;
+        return this;
+    }
+
+    public ServerOptions receiveBufferSize(int receiveBufferSize) {
+        this.receiveBufferSize = receiveBufferSize;
+        return this;
+    }
+
+    public ServerOptions h2InitialWindowSize(int h2InitialWindowSize) {
+        this.h2InitialWindowSize = h2InitialWindowSize;
+        return this;
+    }
+
+    public ServerOptions tls(TlsOptions tls) {
+        this.tls = tls;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "body=" + body + " json=" + json + " max-concurrent-requests=" + maxConcurrentRequests +
+                " write-queue-length=" + writeQueueLength + " receive-buffer-size=" + receiveBufferSize +
+                " h2-initial-window-size=" + h2InitialWindowSize + " tls=[" + tls + "]";
+    }
+
+    public enum BodyMode {
+        /**
+         * Bind the whole body to {@link Main.Input} using the configured {@link Codec}.
+         */
+        BINDING,
+        /**
+         * Read the body from {@code req.content().inputStream()} with a jackson streaming parser, see
+         * {@link StreamingInput}.
+         */
+        STREAMING,
+    }
+
+    /**
+     * JSON implementation for {@code /search/find} requests and responses, see {@link JsonCodec}. In
+     * {@link BodyMode#STREAMING} mode, this only applies to the response.
+     */
+    public enum Codec {
+        /**
+         * The helidon JSON-B media support, implemented by yasson.
+         */
+        JSONB,
+        /**
+         * jackson-databind.
+         */
+        DATABIND,
+        /**
+         * jackson-databind with the blackbird module, which replaces reflection with generated lambdas. This is the
+         * successor of afterburner for Java 11+.
+         */
+        BLACKBIRD,
+        /**
+         * DSL-JSON, with converters generated at compile time.
+         */
+        DSL_JSON,
+    }
+}
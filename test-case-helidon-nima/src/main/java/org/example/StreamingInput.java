@@ -0,0 +1,61 @@
+package org.example;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import io.helidon.http.BadRequestException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads {@link Main.Input} token by token from the request stream. The request thread is virtual, so blocking on the
+ * stream is cheap, and the document is never buffered as a whole. Malformed documents are reported as
+ * {@link BadRequestException}, like {@link JsonCodec} does.
+ */
+final class StreamingInput {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private StreamingInput() {
+    }
+
+    static Main.Input read(InputStream stream) throws IOException {
+        Main.Input input = new Main.Input();
+        try (JsonParser parser = JSON_FACTORY.createParser(stream)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "haystack" -> {
+                        expect(value, JsonToken.START_ARRAY);
+                        List<String> haystack = new ArrayList<>();
+                        while (parser.nextToken() == JsonToken.VALUE_STRING) {
+                            haystack.add(parser.getText());
+                        }
+                        expect(parser.currentToken(), JsonToken.END_ARRAY);
+                        input.setHaystack(haystack);
+                    }
+                    case "needle" -> {
+                        expect(value, JsonToken.VALUE_STRING);
+                        input.setNeedle(parser.getText());
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+            expect(parser.currentToken(), JsonToken.END_OBJECT);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Failed to decode: " + e.getMessage(), e);
+        }
+        return input;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new BadRequestException("Expected " + expected + " but got " + actual);
+        }
+    }
+}
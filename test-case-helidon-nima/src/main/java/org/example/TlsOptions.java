@@ -0,0 +1,92 @@
+package org.example;
+
+import org.example.shared.KeyType;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * TLS options of the HTTPS listener, selected using {@code -Dtls.<option>=<value>} system properties. These are the
+ * same options as in the pure netty test case, except for the provider: helidon only supports the JDK TLS
+ * implementation, so {@code tls.provider} is ignored and the load generator does not vary it. The key, session
+ * tickets and session cache size are all honored.
+ */
+public final class TlsOptions {
+    private static final String PREFIX = "tls.";
+
+    KeyType key = KeyType.RSA;
+    /**
+     * Whether to issue session tickets for stateless resumption, or {@code null} for the JDK default.
+     */
+    Boolean sessionTickets;
+    /**
+     * Maximum number of cached sessions for stateful resumption, or {@code -1} for the helidon default.
+     */
+    int sessionCacheSize = -1;
+
+    public static TlsOptions fromSystemProperties() {
+        TlsOptions options = new TlsOptions();
+        String key = System.getProperty(PREFIX + "key");
+        if (key != null) {
+            options.key = KeyType.valueOf(key.toUpperCase(Locale.ROOT));
+        }
+        String sessionTickets = System.getProperty(PREFIX + "session-tickets");
+        if (sessionTickets != null) {
+            options.sessionTickets = Boolean.parseBoolean(sessionTickets);
+        }
+        options.sessionCacheSize = Integer.getInteger(PREFIX + "session-cache-size", options.sessionCacheSize);
+        return options;
+    }
+
+    /**
+     * The JDK provider reads its session ticket setting from a system property when it is first initialized, so this
+     * has to be called before any TLS code runs.
+     */
+    void configureJdk() {
+        if (sessionTickets != null) {
+            System.setProperty("jdk.tls.server.enableSessionTicketExtension", String.valueOf(sessionTickets));
+        }
+    }
+
+    X509Certificate certificate() throws CertificateException {
+        return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(key.certificatePem()));
+    }
+
+    /**
+     * The PKCS#8 PEM does not say which {@link KeyFactory} to use, so we take the algorithm of the certificate.
+     */
+    PrivateKey privateKey(X509Certificate certificate) {
+        String pem = new String(key.privateKeyPem(), StandardCharsets.US_ASCII)
+                .replaceAll("-----(BEGIN|END) PRIVATE KEY-----", "");
+        try {
+            return KeyFactory.getInstance(certificate.getPublicKey().getAlgorithm())
+                    .generatePrivate(new PKCS8EncodedKeySpec(Base64.getMimeDecoder().decode(pem)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid private key for " + key, e);
+        }
+    }
+
+    public TlsOptions key(KeyType key) {
+        this.key = key;
+        return this;
+    }
+
+    public TlsOptions sessionCacheSize(int sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "key=" + key + " session-tickets=" + sessionTickets + " session-cache-size=" + sessionCacheSize;
+    }
+}
@@ -1,7 +1,9 @@
 package org.example;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import io.helidon.webserver.WebServer;
+import org.example.shared.KeyType;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -78,4 +80,79 @@ public class NimaServerTest {
         Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
         jsonMapper.readTree(response.body());
     }
+
+    @Test
+    public void https1Ecdsa() throws IOException, InterruptedException, CertificateException {
+        WebServer ecdsaServer = Main.start(0, 0, new ServerOptions().tls(new TlsOptions().key(KeyType.ECDSA).sessionCacheSize(100)));
+        try {
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + ecdsaServer.port("https") + "/status")).header("Accept", "application/json").version(HttpClient.Version.HTTP_1_1).build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(HttpClient.Version.HTTP_1_1, response.version());
+            jsonMapper.readTree(response.body());
+        } finally {
+            ecdsaServer.stop();
+        }
+    }
+
+    @Test
+    public void findBinding() throws IOException, InterruptedException {
+        find(webServer);
+    }
+
+    @Test
+    public void findStreaming() throws IOException, InterruptedException, CertificateException {
+        find(new ServerOptions()
+                .body(ServerOptions.BodyMode.STREAMING)
+                .maxConcurrentRequests(100)
+                .writeQueueLength(32)
+                .receiveBufferSize(65536));
+    }
+
+    @Test
+    public void findDatabind() throws IOException, InterruptedException, CertificateException {
+        find(new ServerOptions().json(ServerOptions.Codec.DATABIND));
+    }
+
+    @Test
+    public void findBlackbird() throws IOException, InterruptedException, CertificateException {
+        find(new ServerOptions().json(ServerOptions.Codec.BLACKBIRD));
+    }
+
+    @Test
+    public void findDslJson() throws IOException, InterruptedException, CertificateException {
+        find(new ServerOptions().json(ServerOptions.Codec.DSL_JSON));
+    }
+
+    private void find(ServerOptions options) throws IOException, InterruptedException, CertificateException {
+        WebServer server = Main.start(0, 0, options);
+        try {
+            find(server);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private void find(WebServer server) throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + server.port("http") + "/search/find");
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"ar\"}"))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        JsonNode result = jsonMapper.readTree(response.body());
+        Assertions.assertEquals(1, result.get("listIndex").asInt());
+        Assertions.assertEquals(1, result.get("stringIndex").asInt());
+
+        response = client.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"x\"}"))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(404, response.statusCode());
+
+        response = client.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":"))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(400, response.statusCode());
+    }
 }
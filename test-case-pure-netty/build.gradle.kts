@@ -14,11 +14,13 @@ application {
 }
 
 dependencies {
+    implementation(project(":test-case-shared"))
     implementation("io.netty:netty-codec-http:4.1.104.Final")
     implementation("io.netty:netty-codec-http2:4.1.104.Final")
+    implementation("io.netty:netty-transport-native-epoll:4.1.104.Final:linux-x86_64")
     implementation("io.netty.incubator:netty-incubator-transport-native-io_uring:0.0.24.Final:linux-x86_64")
+    implementation("io.netty:netty-tcnative-boringssl-static:2.0.62.Final:linux-x86_64")
     implementation("com.fasterxml.jackson.core:jackson-databind:2.16.1")
-    implementation("org.bouncycastle:bcpkix-jdk18on:1.77")
     runtimeOnly("ch.qos.logback:logback-classic:1.4.14")
     testImplementation("org.junit.jupiter:junit-jupiter-engine:5.9.2")
 }
@@ -1,28 +1,74 @@
 package org.example;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.ByteBufOutputStream;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.ssl.SslContext;
+import io.netty.handler.codec.http2.Http2StreamChannel;
 import io.netty.handler.ssl.SslProvider;
+import io.netty.util.concurrent.FastThreadLocal;
+import org.example.shared.StreamingFind;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 final class AgnosticRequestHandler {
-    static final AgnosticRequestHandler INSTANCE = new AgnosticRequestHandler();
-
+    private final ServerOptions options;
+    /**
+     * Only set for {@link ServerOptions.Acceptor#REUSE_PORT}.
+     */
+    private final ConnectionCounts connectionCounts;
     private final ObjectReader reader = new ObjectMapper().readerFor(Input.class);
     private final ObjectWriter writerResult = new ObjectMapper().writerFor(Result.class);
     private final ObjectWriter writerStatus = new ObjectMapper().writerFor(Status.class);
+    private final JsonFactory jsonFactory = new JsonFactory();
+    /**
+     * Serialized {@code /status} bodies by channel class. The status is constant for each channel class, so we only
+     * serialize it once per event loop, and hand out retained duplicates afterwards.
+     */
+    private final FastThreadLocal<Map<Class<?>, ByteBuf>> statusCache = new FastThreadLocal<>() {
+        @Override
+        protected Map<Class<?>, ByteBuf> initialValue() {
+            return new HashMap<>();
+        }
+
+        @Override
+        protected void onRemoval(Map<Class<?>, ByteBuf> value) {
+            value.values().forEach(ByteBuf::release);
+        }
+    };
+
+    AgnosticRequestHandler(ServerOptions options, ConnectionCounts connectionCounts) {
+        this.options = options;
+        this.connectionCounts = connectionCounts;
+    }
+
+    /**
+     * Search the {@code /search/find} body. This does not allocate buffers, so it can run off the event loop.
+     *
+     * @return The result, or {@code null} if the needle was not found
+     */
+    Result search(ByteBuf content) throws IOException {
+        return switch (options.search) {
+            case DATABIND -> findDatabind(content);
+            case BYTES -> {
+                Result r = ByteSearch.find(content);
+                yield r == ByteSearch.FALLBACK ? findDatabind(content) : r;
+            }
+        };
+    }
 
-    ByteBuf find(ChannelHandlerContext ctx, ByteBuf content) throws IOException {
+    private Result findDatabind(ByteBuf content) throws IOException {
         Input input;
         if (content.hasArray()) {
             input = reader.readValue(content.array(), content.readerIndex() + content.arrayOffset(), content.readableBytes());
@@ -30,17 +76,44 @@ final class AgnosticRequestHandler {
             input = reader.readValue((InputStream) new ByteBufInputStream(content));
         }
 
-        Result result = find(input.haystack(), input.needle());
-        return result == null ? null : serialize(ctx, writerResult, result);
+        return find(input.haystack(), input.needle());
     }
 
-    ByteBuf status(ChannelHandlerContext ctx) throws IOException {
-        Status status = new Status(
-                ctx.channel().getClass().getName(),
-                SslContext.defaultServerProvider()
-        );
+    StreamingFind<Result> streamingFind() throws IOException {
+        return new StreamingFind<>(jsonFactory.createNonBlockingByteBufferParser(), Result::new);
+    }
+
+    ByteBuf serialize(ChannelHandlerContext ctx, Result result) throws IOException {
+        return serialize(ctx, writerResult, result);
+    }
 
-        return serialize(ctx, writerStatus, status);
+    ByteBuf status(ChannelHandlerContext ctx) throws IOException {
+        Channel channel = ctx.channel();
+        if (channel instanceof Http2StreamChannel) {
+            // report the connection, not the multiplexed stream
+            channel = channel.parent();
+        }
+        Class<?> channelClass = channel.getClass();
+        if (connectionCounts != null) {
+            // the counts change, so this can't be cached
+            return serialize(ctx, writerStatus, new Status(
+                    channelClass.getName(),
+                    options.tls.provider.sslProvider,
+                    connectionCounts.snapshot()
+            ));
+        }
+        Map<Class<?>, ByteBuf> cache = statusCache.get();
+        ByteBuf cached = cache.get(channelClass);
+        if (cached == null) {
+            Status status = new Status(
+                    channelClass.getName(),
+                    options.tls.provider.sslProvider,
+                    null
+            );
+            cached = serialize(ctx, writerStatus, status);
+            cache.put(channelClass, cached);
+        }
+        return cached.retainedDuplicate();
     }
 
     private ByteBuf serialize(ChannelHandlerContext ctx, ObjectWriter writer, Object result) throws IOException {
@@ -61,5 +134,6 @@ final class AgnosticRequestHandler {
     }
 
     record Status(String channelImplementation,
-                  SslProvider sslProvider) {}
+                  SslProvider sslProvider,
+                  @JsonInclude(JsonInclude.Include.NON_NULL) List<Long> connectionsPerLoop) {}
 }
@@ -0,0 +1,278 @@
+package org.example;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Search engine that works directly on the UTF-8 request body, without decoding the haystack into {@link String}s.
+ * The haystack array is walked token by token, and the needle bytes are matched in place using
+ * {@link ByteBuf#indexOf}, which netty implements with SWAR for the first byte.
+ * <p>
+ * Because a valid UTF-8 needle can only match at a character boundary, a byte match is equivalent to a match of the
+ * decoded strings, and the byte offset can be translated back to a {@code char} offset afterwards. This does not
+ * hold for JSON escape sequences, so documents that contain any return {@link #FALLBACK}.
+ */
+final class ByteSearch {
+    /**
+     * Returned when this engine cannot handle the document, and the caller should fall back to data binding.
+     */
+    static final Result FALLBACK = new Result(-1, -1);
+
+    private static final byte[] HAYSTACK = "haystack".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEEDLE = "needle".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuf buf;
+    private final int end;
+    private int pos;
+
+    private int haystackStart = -1;
+    private int needleStart = -1;
+    private int needleEnd;
+    private Result result;
+
+    private ByteSearch(ByteBuf buf) {
+        this.buf = buf;
+        this.pos = buf.readerIndex();
+        this.end = buf.writerIndex();
+    }
+
+    /**
+     * Search the given JSON document. The reader index of the buffer is not modified.
+     *
+     * @return The search result, {@code null} if the needle was not found, or {@link #FALLBACK}
+     */
+    static Result find(ByteBuf buf) throws IOException {
+        ByteSearch search = new ByteSearch(buf);
+        try {
+            search.parseDocument();
+        } catch (FallbackException e) {
+            return FALLBACK;
+        }
+        return search.result;
+    }
+
+    private void parseDocument() throws IOException, FallbackException {
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            throw new IOException("Missing haystack and needle");
+        }
+        while (true) {
+            expect('"');
+            int keyStart = pos;
+            int keyEnd = stringEnd();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            if (keyEquals(keyStart, keyEnd, HAYSTACK)) {
+                expect('[');
+                haystackStart = pos;
+                // if we already know the needle, we can search right away
+                parseHaystack(needleStart != -1);
+            } else if (keyEquals(keyStart, keyEnd, NEEDLE)) {
+                expect('"');
+                needleStart = pos;
+                needleEnd = stringEnd();
+            } else {
+                skipValue();
+            }
+            if (result != null) {
+                return;
+            }
+            skipWhitespace();
+            byte next = next();
+            if (next == '}') {
+                break;
+            } else if (next != ',') {
+                throw unexpected(next);
+            }
+            skipWhitespace();
+        }
+        if (haystackStart == -1 || needleStart == -1) {
+            throw new IOException("Missing haystack or needle");
+        }
+        if (needleStart > haystackStart) {
+            // needle came after the haystack, need a second pass
+            pos = haystackStart;
+            parseHaystack(true);
+        }
+    }
+
+    private void parseHaystack(boolean search) throws IOException, FallbackException {
+        int listIndex = 0;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return;
+        }
+        while (true) {
+            expect('"');
+            int stringStart = pos;
+            int stringEnd = stringEnd();
+            if (search) {
+                int stringIndex = indexOfNeedle(stringStart, stringEnd);
+                if (stringIndex != -1) {
+                    result = new Result(listIndex, stringIndex);
+                    return;
+                }
+            }
+            listIndex++;
+            skipWhitespace();
+            byte next = next();
+            if (next == ']') {
+                return;
+            } else if (next != ',') {
+                throw unexpected(next);
+            }
+            skipWhitespace();
+        }
+    }
+
+    /**
+     * @return The {@code char} index of the needle in the given string, or {@code -1}
+     */
+    private int indexOfNeedle(int stringStart, int stringEnd) {
+        int needleLength = needleEnd - needleStart;
+        if (needleLength == 0) {
+            return 0;
+        }
+        byte first = buf.getByte(needleStart);
+        int lastCandidate = stringEnd - needleLength;
+        int i = stringStart;
+        while (i <= lastCandidate) {
+            int candidate = buf.indexOf(i, lastCandidate + 1, first);
+            if (candidate == -1) {
+                return -1;
+            }
+            if (ByteBufUtil.equals(buf, candidate + 1, buf, needleStart + 1, needleLength - 1)) {
+                return charCount(stringStart, candidate);
+            }
+            i = candidate + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Number of UTF-16 {@code char}s encoded by the given UTF-8 byte range.
+     */
+    private int charCount(int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            byte b = buf.getByte(i);
+            if ((b & 0xC0) != 0x80) {
+                // not a continuation byte
+                count++;
+            }
+            if ((b & 0xF8) == 0xF0) {
+                // four-byte sequence, encoded as a surrogate pair
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find the end of the string starting at {@link #pos}, and move {@link #pos} past the closing quote. Strings with
+     * escape sequences are not supported, since the closing quote may be escaped.
+     *
+     * @return The index of the closing quote
+     */
+    private int stringEnd() throws IOException, FallbackException {
+        int quote = buf.indexOf(pos, end, (byte) '"');
+        if (quote == -1) {
+            throw new IOException("Unterminated string");
+        }
+        if (buf.indexOf(pos, quote, (byte) '\\') != -1) {
+            throw FallbackException.INSTANCE;
+        }
+        pos = quote + 1;
+        return quote;
+    }
+
+    private void skipValue() throws IOException, FallbackException {
+        int depth = 0;
+        do {
+            byte b = next();
+            switch (b) {
+                case '"' -> stringEnd();
+                case '{', '[' -> depth++;
+                case '}', ']' -> depth--;
+                default -> {
+                    if (depth == 0) {
+                        // scalar value, skip until the next delimiter
+                        while (pos < end) {
+                            byte c = buf.getByte(pos);
+                            if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) {
+                                break;
+                            }
+                            pos++;
+                        }
+                    }
+                }
+            }
+        } while (depth > 0);
+    }
+
+    private boolean keyEquals(int start, int end, byte[] expected) {
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (buf.getByte(start + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && isWhitespace(buf.getByte(pos))) {
+            pos++;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private byte peek() throws IOException {
+        if (pos >= end) {
+            throw new IOException("Unexpected end of input");
+        }
+        return buf.getByte(pos);
+    }
+
+    private byte next() throws IOException {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    private void expect(char expected) throws IOException {
+        byte actual = next();
+        if (actual != expected) {
+            throw unexpected(actual);
+        }
+    }
+
+    private IOException unexpected(byte actual) {
+        return new IOException("Unexpected character '" + (char) actual + "' at index " + (pos - 1));
+    }
+
+    /**
+     * Preallocated exception that aborts the search when the document needs to be handled by data binding.
+     */
+    private static final class FallbackException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        static final FallbackException INSTANCE = new FallbackException();
+
+        private FallbackException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package org.example;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.concurrent.EventExecutor;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of connections accepted by each event loop since startup. Loops that never got a connection are reported
+ * as {@code 0}, so that skew is visible.
+ */
+final class ConnectionCounts {
+    /**
+     * Populated once in the constructor and never modified, only the counters change.
+     */
+    private final Map<EventExecutor, AtomicLong> counts = new LinkedHashMap<>();
+
+    ConnectionCounts(EventLoopGroup group) {
+        for (EventExecutor loop : group) {
+            counts.put(loop, new AtomicLong());
+        }
+    }
+
+    void accepted(Channel channel) {
+        counts.get(channel.eventLoop()).incrementAndGet();
+    }
+
+    List<Long> snapshot() {
+        return counts.values().stream().map(AtomicLong::get).toList();
+    }
+}
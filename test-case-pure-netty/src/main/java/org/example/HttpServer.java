@@ -6,60 +6,123 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.ServerSocketChannel;
+import io.netty.channel.socket.nio.NioChannelOption;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http2.Http2CodecUtil;
+import io.netty.handler.codec.http2.Http2Connection;
+import io.netty.handler.codec.http2.Http2ConnectionHandler;
 import io.netty.handler.codec.http2.Http2ConnectionHandlerBuilder;
+import io.netty.handler.codec.http2.Http2Exception;
+import io.netty.handler.codec.http2.Http2FrameCodecBuilder;
+import io.netty.handler.codec.http2.Http2MultiplexHandler;
 import io.netty.handler.codec.http2.Http2Settings;
+import io.netty.handler.codec.http2.Http2StreamChannel;
+import io.netty.handler.codec.http2.Http2StreamFrameToHttpObjectCodec;
 import io.netty.handler.ssl.ApplicationProtocolConfig;
 import io.netty.handler.ssl.ApplicationProtocolNames;
 import io.netty.handler.ssl.ApplicationProtocolNegotiationHandler;
+import io.netty.handler.ssl.OpenSslSessionContext;
+import io.netty.handler.ssl.OpenSslSessionTicketKey;
 import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
-import io.netty.handler.ssl.util.SelfSignedCertificate;
 import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.incubator.channel.uring.IOUringChannelOption;
 import io.netty.incubator.channel.uring.IOUringEventLoopGroup;
 import io.netty.incubator.channel.uring.IOUringServerSocketChannel;
 
 import javax.net.ssl.SSLException;
+import java.io.ByteArrayInputStream;
 import java.net.InetSocketAddress;
-import java.security.cert.CertificateException;
+import java.net.StandardSocketOptions;
+import java.security.SecureRandom;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 
 public final class HttpServer implements AutoCloseable {
-    private static final Http2Settings INITIAL_H2_SETTINGS = Http2Settings.defaultSettings();
+    /**
+     * Same default as netty, we need to pass it explicitly when setting a custom ring size.
+     */
+    private static final int IOSQE_ASYNC_THRESHOLD = Integer.getInteger("io.netty.iouring.iosqeAsyncThreshold", 25);
 
+    private final ServerOptions options;
+    private final ConnectionCounts connectionCounts;
+    private final AgnosticRequestHandler agnosticRequestHandler;
+    private final RequestHandler requestHandler;
+    private final ExecutorService offloadExecutor;
+    private final Http2Settings initialH2Settings;
     private final ServerBootstrap tcpBootstrap;
     private final EventLoopGroup group;
 
-    public HttpServer() {
-        group = new IOUringEventLoopGroup(Runtime.getRuntime().availableProcessors());
+    public HttpServer(ServerOptions options) {
+        this.options = options;
+        group = switch (options.transport) {
+            case NIO -> new NioEventLoopGroup(options.threads);
+            case EPOLL -> new EpollEventLoopGroup(options.threads);
+            case IOURING -> options.ringSize == 0 ?
+                    new IOUringEventLoopGroup(options.threads) :
+                    new IOUringEventLoopGroup(options.threads, (Executor) null, options.ringSize, IOSQE_ASYNC_THRESHOLD);
+        };
+        connectionCounts = options.acceptor == ServerOptions.Acceptor.REUSE_PORT ? new ConnectionCounts(group) : null;
+        agnosticRequestHandler = new AgnosticRequestHandler(options, connectionCounts);
+        offloadExecutor = switch (options.dispatch) {
+            case EVENT_LOOP -> null;
+            case VIRTUAL_THREAD -> newVirtualThreadPerTaskExecutor();
+            case FORK_JOIN -> new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        };
+        requestHandler = new RequestHandler(agnosticRequestHandler, offloadExecutor, options.flush, options.headers);
+        initialH2Settings = Http2Settings.defaultSettings();
+        if (options.h2InitialWindowSize != 0) {
+            initialH2Settings.initialWindowSize(options.h2InitialWindowSize);
+        }
         tcpBootstrap = new ServerBootstrap()
-                .channel(IOUringServerSocketChannel.class)
-                .group(group)
+                .channel(switch (options.transport) {
+                    case NIO -> NioServerSocketChannel.class;
+                    case EPOLL -> EpollServerSocketChannel.class;
+                    case IOURING -> IOUringServerSocketChannel.class;
+                })
                 .option(ChannelOption.SO_BACKLOG, Integer.MAX_VALUE)
                 .childOption(ChannelOption.AUTO_READ, true);
+        if (options.acceptor == ServerOptions.Acceptor.REUSE_PORT) {
+            tcpBootstrap.option(switch (options.transport) {
+                case NIO -> NioChannelOption.of(StandardSocketOptions.SO_REUSEPORT);
+                case EPOLL -> EpollChannelOption.SO_REUSEPORT;
+                case IOURING -> IOUringChannelOption.SO_REUSEPORT;
+            }, true);
+        }
     }
 
     public InetSocketAddress bindHttp(String host, int port) {
-        Channel channel = tcpBootstrap.clone()
+        ServerBootstrap bootstrap = tcpBootstrap.clone()
                 .childHandler(new ChannelInitializer<>() {
                     @Override
                     protected void initChannel(Channel ch) {
+                        countConnection(ch);
                         ch.pipeline().addLast(new ReadTimeoutHandler(1, TimeUnit.MINUTES));
                         addHttp1Handlers(ch.pipeline());
                     }
-                })
-                .bind(host, port).syncUninterruptibly().channel();
-        return ((ServerSocketChannel) channel).localAddress();
+                });
+        return bind(bootstrap, host, port);
     }
 
-    public InetSocketAddress bindHttps(String host, int port) throws CertificateException, SSLException {
-        SelfSignedCertificate ssc = new SelfSignedCertificate();
-        SslContext sslContext = SslContextBuilder.forServer(ssc.key(), ssc.cert())
+    public InetSocketAddress bindHttps(String host, int port) throws SSLException {
+        TlsOptions tls = options.tls;
+        SslContextBuilder sslContextBuilder = SslContextBuilder.forServer(new ByteArrayInputStream(tls.key.certificatePem()), new ByteArrayInputStream(tls.key.privateKeyPem()))
+                .sslProvider(tls.provider.sslProvider)
                 .applicationProtocolConfig(new ApplicationProtocolConfig(
                         ApplicationProtocolConfig.Protocol.ALPN,
                         ApplicationProtocolConfig.SelectorFailureBehavior.NO_ADVERTISE,
@@ -67,12 +130,20 @@ public final class HttpServer implements AutoCloseable {
                         ApplicationProtocolNames.HTTP_2,
                         ApplicationProtocolNames.HTTP_1_1
                 ))
-                .ciphers(List.of("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256", "TLS_AES_128_GCM_SHA256"))
-                .build();
-        Channel channel = tcpBootstrap.clone()
+                .ciphers(List.of(tls.key.tls12Cipher(), "TLS_AES_128_GCM_SHA256"));
+        if (tls.sessionCacheSize != -1) {
+            sslContextBuilder.sessionCacheSize(tls.sessionCacheSize);
+        }
+        SslContext sslContext = sslContextBuilder.build();
+        if (tls.sessionTickets && sslContext.sessionContext() instanceof OpenSslSessionContext openSslSessionContext) {
+            // tcnative only issues tickets once ticket keys are set. for the JDK, see TlsOptions.configureJdk
+            openSslSessionContext.setTicketKeys(randomTicketKey());
+        }
+        ServerBootstrap bootstrap = tcpBootstrap.clone()
                 .childHandler(new ChannelInitializer<>() {
                     @Override
                     protected void initChannel(Channel ch) {
+                        countConnection(ch);
                         ch.pipeline()
                                 .addLast(new ReadTimeoutHandler(1, TimeUnit.MINUTES))
                                 .addLast(new SslHandler(sslContext.newEngine(ch.alloc())))
@@ -87,24 +158,117 @@ public final class HttpServer implements AutoCloseable {
                                     }
                                 });
                     }
-                })
-                .bind(host, port).syncUninterruptibly().channel();
-        return ((ServerSocketChannel) channel).localAddress();
+                });
+        return bind(bootstrap, host, port);
+    }
+
+    /**
+     * Bind one server channel, or for {@link ServerOptions.Acceptor#REUSE_PORT}, one per event loop that also serves
+     * the connections it accepts, so that the kernel decides on which loop a connection ends up.
+     */
+    private InetSocketAddress bind(ServerBootstrap bootstrap, String host, int port) {
+        if (options.acceptor == ServerOptions.Acceptor.SINGLE) {
+            Channel channel = bootstrap.group(group).bind(host, port).syncUninterruptibly().channel();
+            return ((ServerSocketChannel) channel).localAddress();
+        }
+        InetSocketAddress address = null;
+        for (EventExecutor executor : group) {
+            EventLoop loop = (EventLoop) executor;
+            // for port 0, the other channels have to join the port that the first one got
+            Channel channel = bootstrap.clone().group(loop, loop)
+                    .bind(host, address == null ? port : address.getPort()).syncUninterruptibly().channel();
+            if (address == null) {
+                address = ((ServerSocketChannel) channel).localAddress();
+            }
+        }
+        return address;
+    }
+
+    private void countConnection(Channel channel) {
+        if (connectionCounts != null) {
+            connectionCounts.accepted(channel);
+        }
     }
 
     private void addHttp1Handlers(ChannelPipeline pipeline) {
-        pipeline.addLast(new HttpServerCodec())
-                .addLast(makeAggregator())
-                .addLast(RequestHandler.INSTANCE);
+        pipeline.addLast(new HttpServerCodec());
+        addRequestHandlers(pipeline);
+    }
+
+    /**
+     * Add the handlers that process {@link io.netty.handler.codec.http.HttpObject}s, for HTTP/1.1 connections or
+     * multiplexed HTTP/2 streams.
+     */
+    private void addRequestHandlers(ChannelPipeline pipeline) {
+        switch (options.body) {
+            case AGGREGATE -> pipeline.addLast(makeAggregator())
+                    .addLast(requestHandler);
+            case STREAMING -> pipeline.addLast(new StreamingRequestHandler(requestHandler, agnosticRequestHandler));
+        }
+    }
+
+    private void addHttp2Handlers(ChannelPipeline pipeline) throws Http2Exception {
+        Http2ConnectionHandler connectionHandler = switch (options.h2) {
+            case FRAME_LISTENER -> new Http2ConnectionHandlerBuilder()
+                    .server(true)
+                    .validateHeaders(true)
+                    .initialSettings(initialH2Settings)
+                    .frameListener(new RequestHandlerHttp2Frame(agnosticRequestHandler, options.headers))
+                    .build();
+            case MULTIPLEX -> Http2FrameCodecBuilder.forServer()
+                    .validateHeaders(true)
+                    .initialSettings(initialH2Settings)
+                    .build();
+        };
+        pipeline.addLast(connectionHandler);
+        if (options.h2 == ServerOptions.Http2Mode.MULTIPLEX) {
+            pipeline.addLast(new Http2MultiplexHandler(new ChannelInitializer<Http2StreamChannel>() {
+                @Override
+                protected void initChannel(Http2StreamChannel ch) {
+                    ch.pipeline().addLast(new Http2StreamFrameToHttpObjectCodec(true));
+                    addRequestHandlers(ch.pipeline());
+                }
+            }));
+        }
+
+        // the initial SETTINGS only apply to streams, the connection window has to be grown with a WINDOW_UPDATE.
+        // the handler has sent its preface by now, and this is flushed along with it.
+        int connectionWindowIncrement = connectionWindowIncrement();
+        if (connectionWindowIncrement > 0) {
+            Http2Connection connection = connectionHandler.connection();
+            connection.local().flowController().incrementWindowSize(connection.connectionStream(), connectionWindowIncrement);
+        }
+    }
+
+    private static OpenSslSessionTicketKey randomTicketKey() {
+        SecureRandom random = new SecureRandom();
+        byte[] name = new byte[OpenSslSessionTicketKey.NAME_SIZE];
+        byte[] hmacKey = new byte[OpenSslSessionTicketKey.HMAC_KEY_SIZE];
+        byte[] aesKey = new byte[OpenSslSessionTicketKey.AES_KEY_SIZE];
+        random.nextBytes(name);
+        random.nextBytes(hmacKey);
+        random.nextBytes(aesKey);
+        return new OpenSslSessionTicketKey(name, hmacKey, aesKey);
+    }
+
+    private int connectionWindowIncrement() {
+        Integer initialWindowSize = initialH2Settings.initialWindowSize();
+        if (initialWindowSize == null) {
+            return 0;
+        }
+        return Math.max(0, initialWindowSize - Http2CodecUtil.DEFAULT_WINDOW_SIZE);
     }
 
-    private void addHttp2Handlers(ChannelPipeline pipeline) {
-        pipeline.addLast(new Http2ConnectionHandlerBuilder()
-                        .server(true)
-                        .validateHeaders(true)
-                        .initialSettings(INITIAL_H2_SETTINGS)
-                        .frameListener(new RequestHandlerHttp2Frame())
-                        .build());
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} is only available on Java 21, but this project still builds
+     * on Java 17 (e.g. for native image), so we look it up reflectively.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21", e);
+        }
     }
 
     private static HttpObjectAggregator makeAggregator() {
@@ -116,5 +280,8 @@ public final class HttpServer implements AutoCloseable {
     @Override
     public void close() {
         group.shutdownGracefully();
+        if (offloadExecutor != null) {
+            offloadExecutor.shutdown();
+        }
     }
 }
@@ -7,7 +7,9 @@ public class Main {
     public static void main(String[] args) throws Exception {
         ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.DISABLED);
 
-        HttpServer httpServer = new HttpServer();
+        ServerOptions options = ServerOptions.fromSystemProperties();
+        options.tls.configureJdk();
+        HttpServer httpServer = new HttpServer(options);
         httpServer.bindHttp("0.0.0.0", 8080);
         System.out.println("Bound to http://0.0.0.0:8080");
         httpServer.bindHttps("0.0.0.0", 8443);
@@ -10,16 +10,46 @@ import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
 import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.util.AttributeKey;
+import org.example.shared.DateHeader;
+import org.example.shared.HeaderMode;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
 
 @ChannelHandler.Sharable
 public class RequestHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
-    static final RequestHandler INSTANCE = new RequestHandler();
+    /**
+     * Requests that arrived while an offloaded request of the same connection was running. HTTP/1.1 responses must be
+     * sent in request order, and a single read can contain several pipelined requests, so these wait until the
+     * offloaded response is written. Unset while no request is offloaded.
+     */
+    private static final AttributeKey<Queue<FullHttpRequest>> PENDING = AttributeKey.valueOf(RequestHandler.class, "pending");
+
+    private final AgnosticRequestHandler agnosticRequestHandler;
+    /**
+     * Executor that {@code /search/find} requests are offloaded to, or {@code null} to run them on the event loop.
+     */
+    private final Executor offloadExecutor;
+    /**
+     * Whether to delay the flush to {@link #channelReadComplete}.
+     */
+    private final boolean flushOnReadComplete;
+    private final boolean normalizedHeaders;
+
+    RequestHandler(AgnosticRequestHandler agnosticRequestHandler, Executor offloadExecutor, ServerOptions.FlushMode flushMode, HeaderMode headerMode) {
+        this.agnosticRequestHandler = agnosticRequestHandler;
+        this.offloadExecutor = offloadExecutor;
+        this.flushOnReadComplete = flushMode == ServerOptions.FlushMode.READ_COMPLETE;
+        this.normalizedHeaders = headerMode == HeaderMode.NORMALIZED;
+    }
 
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
@@ -37,52 +67,185 @@ public class RequestHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         }
     }
 
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        Queue<FullHttpRequest> pending = ctx.channel().attr(PENDING).getAndSet(null);
+        if (pending != null) {
+            pending.forEach(FullHttpRequest::release);
+        }
+        super.channelInactive(ctx);
+    }
+
     @Override
     protected void channelRead0(ChannelHandlerContext ctx, FullHttpRequest msg) throws Exception {
-        FullHttpResponse response = computeResponse(ctx, msg);
-        response.headers().add(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
-        response.headers().add(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
-        ctx.writeAndFlush(response, ctx.voidPromise());
-        ctx.read();
+        Queue<FullHttpRequest> pending = ctx.channel().attr(PENDING).get();
+        if (pending != null) {
+            pending.add(msg.retain());
+            return;
+        }
+        if (!handle(ctx, msg, !flushOnReadComplete)) {
+            ctx.read();
+        }
     }
 
-    private FullHttpResponse computeResponse(ChannelHandlerContext ctx, FullHttpRequest msg) {
+    /**
+     * @return {@code true} if the request was offloaded, so its response is not written yet
+     */
+    private boolean handle(ChannelHandlerContext ctx, FullHttpRequest msg, boolean flush) {
+        FullHttpResponse response;
         try {
-            String path = URI.create(msg.uri()).getPath();
-            if (path.equals("/search/find")) {
-                return computeResponseSearch(ctx, msg);
+            response = computeResponseHead(ctx, msg);
+        } catch (Exception e) {
+            response = internalServerError(e);
+        }
+        if (response == null) {
+            if (offloadExecutor != null) {
+                offload(ctx, msg);
+                return true;
             }
-            if (path.equals("/status")) {
-                return computeResponseStatus(ctx, msg);
+            response = computeResponseFind(ctx, msg);
+        }
+        write(ctx, response, flush);
+        return false;
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception {
+        if (flushOnReadComplete) {
+            ctx.flush();
+        }
+        super.channelReadComplete(ctx);
+    }
+
+    /**
+     * Run the search on the {@link #offloadExecutor}, and serialize and write the response back on the event loop, so
+     * that buffers are only allocated there. Later requests of the connection are queued in {@link #PENDING} until
+     * then, and the next read is only requested once they are handled too.
+     */
+    private void offload(ChannelHandlerContext ctx, FullHttpRequest msg) {
+        ctx.channel().attr(PENDING).set(new ArrayDeque<>());
+        msg.retain();
+        offloadExecutor.execute(() -> {
+            Result result = null;
+            Exception failure = null;
+            try {
+                result = agnosticRequestHandler.search(msg.content());
+            } catch (Exception e) {
+                failure = e;
+            } finally {
+                msg.release();
             }
+            Result finalResult = result;
+            Exception finalFailure = failure;
+            ctx.executor().execute(() -> {
+                write(ctx, finalFailure == null ? computeResponseFind(ctx, finalResult) : internalServerError(finalFailure));
+                handlePending(ctx);
+            });
+        });
+    }
+
+    private void handlePending(ChannelHandlerContext ctx) {
+        Queue<FullHttpRequest> pending = ctx.channel().attr(PENDING).getAndSet(null);
+        if (pending == null) {
+            // channel closed in the meantime
+            return;
+        }
+        FullHttpRequest next;
+        while ((next = pending.poll()) != null) {
+            boolean offloaded;
+            try {
+                // outside of the read, so flush immediately
+                offloaded = handle(ctx, next, true);
+            } finally {
+                next.release();
+            }
+            if (offloaded) {
+                // the remaining requests wait for the new offloaded one
+                ctx.channel().attr(PENDING).get().addAll(pending);
+                return;
+            }
+        }
+        ctx.read();
+    }
+
+    void write(ChannelHandlerContext ctx, FullHttpResponse response) {
+        write(ctx, response, true);
+    }
+
+    private void write(ChannelHandlerContext ctx, FullHttpResponse response, boolean flush) {
+        if (normalizedHeaders) {
+            // keep-alive is the HTTP/1.1 default and needs no header
+            response.headers().add(HttpHeaderNames.DATE, DateHeader.value());
+        } else {
+            response.headers().add(HttpHeaderNames.CONNECTION, HttpHeaderValues.KEEP_ALIVE);
+        }
+        response.headers().add(HttpHeaderNames.CONTENT_LENGTH, response.content().readableBytes());
+        if (flush) {
+            ctx.writeAndFlush(response, ctx.voidPromise());
+        } else {
+            ctx.write(response, ctx.voidPromise());
+        }
+    }
+
+    private FullHttpResponse computeResponseFind(ChannelHandlerContext ctx, FullHttpRequest msg) {
+        try {
+            return computeResponseFind(ctx, agnosticRequestHandler.search(msg.content()));
+        } catch (Exception e) {
+            return internalServerError(e);
+        }
+    }
+
+    private FullHttpResponse computeResponseFind(ChannelHandlerContext ctx, Result result) {
+        if (result == null) {
             return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND);
+        }
+        try {
+            return ok(agnosticRequestHandler.serialize(ctx, result));
         } catch (Exception e) {
-            e.printStackTrace();
-            return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            return internalServerError(e);
         }
     }
 
-    private FullHttpResponse computeResponseSearch(ChannelHandlerContext ctx, FullHttpRequest msg) throws IOException {
+    private static FullHttpResponse internalServerError(Exception e) {
+        e.printStackTrace();
+        return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Compute the response for any request that can be answered without looking at the request body.
+     *
+     * @return The response, or {@code null} if this is a valid {@code /search/find} request
+     */
+    FullHttpResponse computeResponseHead(ChannelHandlerContext ctx, HttpRequest msg) throws IOException {
+        String path = URI.create(msg.uri()).getPath();
+        if (path.equals("/search/find")) {
+            return validateSearch(msg);
+        }
+        if (path.equals("/status")) {
+            return computeResponseStatus(ctx, msg);
+        }
+        return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND);
+    }
+
+    private static FullHttpResponse validateSearch(HttpRequest msg) {
         if (!msg.method().equals(HttpMethod.POST)) {
             return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.METHOD_NOT_ALLOWED);
         }
         if (!msg.headers().contains(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON, true)) {
             return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.UNSUPPORTED_MEDIA_TYPE);
         }
-
-        ByteBuf res = AgnosticRequestHandler.INSTANCE.find(ctx, msg.content());
-        return res == null ? new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND) : ok(res);
+        return null;
     }
 
-    private FullHttpResponse computeResponseStatus(ChannelHandlerContext ctx, FullHttpRequest msg) throws IOException {
+    private FullHttpResponse computeResponseStatus(ChannelHandlerContext ctx, HttpRequest msg) throws IOException {
         if (!msg.method().equals(HttpMethod.GET)) {
             return new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.METHOD_NOT_ALLOWED);
         }
 
-        return ok(AgnosticRequestHandler.INSTANCE.status(ctx));
+        return ok(agnosticRequestHandler.status(ctx));
     }
 
-    private FullHttpResponse ok(ByteBuf buffer) {
+    static FullHttpResponse ok(ByteBuf buffer) {
         DefaultFullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK, buffer);
         response.headers().add(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
         //response.headers().add(HttpHeaderNames.CONTENT_LENGTH, buffer.readableBytes());
@@ -1,8 +1,6 @@
 package org.example;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.CompositeByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
@@ -16,17 +14,29 @@ import io.netty.handler.codec.http2.Http2FrameAdapter;
 import io.netty.handler.codec.http2.Http2Headers;
 import io.netty.handler.codec.http2.Http2Stream;
 import io.netty.util.AsciiString;
+import org.example.shared.DateHeader;
+import org.example.shared.HeaderMode;
+import org.example.shared.StreamingFind;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
+/**
+ * HTTP/2 request handler. {@code /search/find} bodies are parsed frame by frame using {@link StreamingFind}, so DATA
+ * frames are never retained or aggregated, and their bytes are returned to flow control right away.
+ */
 final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
     static final AsciiString PATH_STATUS = AsciiString.of("/status");
     static final AsciiString PATH_FIND = AsciiString.of("/search/find");
 
+    private final AgnosticRequestHandler agnosticRequestHandler;
+    private final boolean normalizedHeaders;
     private Http2ConnectionHandler connectionHandler;
     private Http2Connection.PropertyKey holderPropertyKey;
 
-    public RequestHandlerHttp2Frame() {
+    RequestHandlerHttp2Frame(AgnosticRequestHandler agnosticRequestHandler, HeaderMode headerMode) {
+        this.agnosticRequestHandler = agnosticRequestHandler;
+        this.normalizedHeaders = headerMode == HeaderMode.NORMALIZED;
     }
 
     private StreamHolder stream(ChannelHandlerContext ctx, int streamId) {
@@ -65,7 +75,7 @@ final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
     public int onDataRead(ChannelHandlerContext ctx, int streamId, ByteBuf data, int padding, boolean endOfStream) throws Http2Exception {
         int res = super.onDataRead(ctx, streamId, data, padding, endOfStream); // flow control value
         StreamHolder stream = stream(ctx, streamId);
-        stream.onDataRead(data.retain());
+        stream.onDataRead(data);
         if (endOfStream) {
             stream.eof();
         }
@@ -75,8 +85,11 @@ final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
     private class StreamHolder {
         private final ChannelHandlerContext ctx;
         private final int streamId;
-        boolean find = false;
-        ByteBuf buf = null;
+        /**
+         * Search state of a {@code /search/find} request, or {@code null} if we are not (or no longer) interested in
+         * the body.
+         */
+        StreamingFind<Result> find = null;
 
         StreamHolder(ChannelHandlerContext ctx, int streamId) {
             this.ctx = ctx;
@@ -94,7 +107,12 @@ final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
                     return;
                 }
 
-                find = true;
+                try {
+                    find = agnosticRequestHandler.streamingFind();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    error(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                }
                 return;
             }
             if (PATH_STATUS.equals(headers.path())) {
@@ -105,7 +123,7 @@ final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
 
                 ByteBuf buf;
                 try {
-                    buf = AgnosticRequestHandler.INSTANCE.status(ctx);
+                    buf = agnosticRequestHandler.status(ctx);
                 } catch (IOException e) {
                     e.printStackTrace();
                     error(HttpResponseStatus.INTERNAL_SERVER_ERROR);
@@ -121,6 +139,9 @@ final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
         private void error(HttpResponseStatus status) {
             DefaultHttp2Headers responseHeaders = new DefaultHttp2Headers();
             responseHeaders.status(status.codeAsText());
+            if (normalizedHeaders) {
+                responseHeaders.set(HttpHeaderNames.DATE, DateHeader.value());
+            }
             connectionHandler.encoder().writeHeaders(ctx, streamId, responseHeaders, 0, true, ctx.voidPromise());
         }
 
@@ -128,44 +149,72 @@ final class RequestHandlerHttp2Frame extends Http2FrameAdapter {
             DefaultHttp2Headers responseHeaders = new DefaultHttp2Headers();
             responseHeaders.status(HttpResponseStatus.OK.codeAsText());
             responseHeaders.set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
+            if (normalizedHeaders) {
+                responseHeaders.setInt(HttpHeaderNames.CONTENT_LENGTH, buf.readableBytes());
+                responseHeaders.set(HttpHeaderNames.DATE, DateHeader.value());
+            }
             connectionHandler.encoder().writeHeaders(ctx, streamId, responseHeaders, 0, false, ctx.voidPromise());
             connectionHandler.encoder().writeData(ctx, streamId, buf, 0, true, ctx.voidPromise());
         }
 
+        /**
+         * Feed a DATA frame to the parser. The frame is not retained, so its bytes can be returned to flow control
+         * immediately.
+         */
         void onDataRead(ByteBuf data) {
-            if (find) {
-                if (buf == null) {
-                    buf = data;
-                } else if (buf instanceof CompositeByteBuf comp) {
-                    comp.addComponent(true, data);
-                } else {
-                    CompositeByteBuf comp = ctx.alloc().compositeBuffer();
-                    comp.addComponent(true, buf);
-                    comp.addComponent(true, data);
-                    buf = comp;
+            if (find == null || !data.isReadable()) {
+                return;
+            }
+            try {
+                for (ByteBuffer nioBuffer : data.nioBuffers()) {
+                    if (find.feed(nioBuffer)) {
+                        // no need to wait for the rest of the body
+                        respond();
+                        return;
+                    }
                 }
-            } else {
-                data.release();
+            } catch (IOException e) {
+                malformed();
             }
         }
 
         void eof() {
-            if (find) {
-                if (buf == null) {
-                    buf = Unpooled.EMPTY_BUFFER;
-                }
-                ByteBuf res;
-                try {
-                    res = AgnosticRequestHandler.INSTANCE.find(ctx, buf);
-                } catch (IOException e) {
-                    e.printStackTrace();
-                    error(HttpResponseStatus.INTERNAL_SERVER_ERROR);
-                    return;
-                } finally {
-                    buf.release();
-                }
-                ok(res);
+            if (find == null) {
+                return;
+            }
+            respond();
+        }
+
+        private void respond() {
+            Result result;
+            try {
+                result = find.finish();
+            } catch (IOException e) {
+                malformed();
+                return;
             }
+            find = null;
+            if (result == null) {
+                error(HttpResponseStatus.NOT_FOUND);
+                return;
+            }
+            ByteBuf buf;
+            try {
+                buf = agnosticRequestHandler.serialize(ctx, result);
+            } catch (IOException e) {
+                e.printStackTrace();
+                error(HttpResponseStatus.INTERNAL_SERVER_ERROR);
+                return;
+            }
+            ok(buf);
+        }
+
+        /**
+         * The client sent a body we can't parse. That is the client's fault, so we don't log it.
+         */
+        private void malformed() {
+            find = null;
+            error(HttpResponseStatus.BAD_REQUEST);
         }
     }
 }
@@ -0,0 +1,224 @@
+package org.example;
+
+import org.example.shared.HeaderMode;
+
+import java.util.Locale;
+
+/**
+ * Runtime options of the server. The load generator selects these using {@code -Dpure-netty.<option>=<value>}
+ * system properties, so that a single shadow jar can be benchmarked in multiple configurations.
+ */
+public final class ServerOptions {
+    private static final String PREFIX = "pure-netty.";
+
+    BodyMode body = BodyMode.AGGREGATE;
+    SearchEngine search = SearchEngine.DATABIND;
+    Dispatch dispatch = Dispatch.EVENT_LOOP;
+    FlushMode flush = FlushMode.EAGER;
+    Http2Mode h2 = Http2Mode.FRAME_LISTENER;
+    Transport transport = Transport.IOURING;
+    Acceptor acceptor = Acceptor.SINGLE;
+    int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * io_uring ring size, or {@code 0} for the netty default ({@code io.netty.iouring.ringSize}).
+     */
+    int ringSize = 0;
+    /**
+     * HTTP/2 initial stream window size, or {@code 0} for the protocol default of 65535. The connection window is
+     * grown to the same size.
+     */
+    int h2InitialWindowSize = 0;
+    TlsOptions tls = new TlsOptions();
+    HeaderMode headers = HeaderMode.DEFAULT;
+
+    public static ServerOptions fromSystemProperties() {
+        ServerOptions options = new ServerOptions();
+        options.body = enumProperty("body", options.body);
+        options.search = enumProperty("search", options.search);
+        options.dispatch = enumProperty("dispatch", options.dispatch);
+        options.flush = enumProperty("flush", options.flush);
+        options.h2 = enumProperty("h2", options.h2);
+        options.transport = enumProperty("transport", options.transport);
+        options.acceptor = enumProperty("acceptor", options.acceptor);
+        options.threads = Integer.getInteger(PREFIX + "threads", options.threads);
+        options.ringSize = Integer.getInteger(PREFIX + "ring-size", options.ringSize);
+        options.h2InitialWindowSize = Integer.getInteger(PREFIX + "h2-initial-window-size", options.h2InitialWindowSize);
+        options.tls = TlsOptions.fromSystemProperties();
+        options.headers = HeaderMode.fromSystemProperties();
+        return options;
+    }
+
+    private static <E extends Enum<E>> E enumProperty(String name, E defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public ServerOptions body(BodyMode body) {
+        this.body = body;
+        return this;
+    }
+
+    public ServerOptions search(SearchEngine search) {
+        this.search = search;
+        return this;
+    }
+
+    public ServerOptions dispatch(Dispatch dispatch) {
+        this.dispatch = dispatch;
+        return this;
+    }
+
+    public ServerOptions flush(FlushMode flush) {
+        this.flush = flush;
+        return this;
+    }
+
+    public ServerOptions h2(Http2Mode h2) {
+        this.h2 = h2;
+        return this;
+    }
+
+    public ServerOptions transport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    public ServerOptions acceptor(Acceptor acceptor) {
+        this.acceptor = acceptor;
+        return this;
+    }
+
+    public ServerOptions threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public ServerOptions ringSize(int ringSize) {
+        this.ringSize = ringSize;
+        return this;
+    }
+
+    public ServerOptions h2InitialWindowSize(int h2InitialWindowSize) {
+        this.h2InitialWindowSize = h2InitialWindowSize;
+        return this;
+    }
+
+    public ServerOptions tls(TlsOptions tls) {
+        this.tls = tls;
+        return this;
+    }
+
+    public ServerOptions headers(HeaderMode headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "body=" + body + " search=" + search + " dispatch=" + dispatch + " flush=" + flush + " h2=" + h2 + " transport=" + transport +
+                " acceptor=" + acceptor + " threads=" + threads + " ring-size=" + ringSize + " h2-initial-window-size=" + h2InitialWindowSize +
+                " tls=[" + tls + "] headers=" + headers;
+    }
+
+    public enum BodyMode {
+        /**
+         * Aggregate the full request using {@link io.netty.handler.codec.http.HttpObjectAggregator} before parsing
+         * it.
+         */
+        AGGREGATE,
+        /**
+         * Parse the request body incrementally as it arrives, see {@link org.example.shared.StreamingFind}.
+         */
+        STREAMING,
+    }
+
+    public enum SearchEngine {
+        /**
+         * Bind the body to {@link Input} using jackson-databind, and search using {@link String#indexOf}.
+         */
+        DATABIND,
+        /**
+         * Search the UTF-8 body in place, see {@link ByteSearch}.
+         */
+        BYTES,
+    }
+
+    /**
+     * Where aggregated {@code /search/find} requests are processed. Requests that do not need the body, and the
+     * {@link BodyMode#STREAMING} and {@link Http2Mode#FRAME_LISTENER} paths, always stay on the event loop.
+     */
+    public enum Dispatch {
+        /**
+         * Parse and search inline on the event loop.
+         */
+        EVENT_LOOP,
+        /**
+         * Offload to a new virtual thread per request. Requires Java 21 at runtime.
+         */
+        VIRTUAL_THREAD,
+        /**
+         * Offload to a {@link java.util.concurrent.ForkJoinPool} with one thread per CPU.
+         */
+        FORK_JOIN,
+    }
+
+    /**
+     * When responses of aggregated HTTP/1.1 requests are flushed. Offloaded responses are written outside the read
+     * batch, so they are always flushed immediately.
+     */
+    public enum FlushMode {
+        /**
+         * Flush every response as soon as it is written.
+         */
+        EAGER,
+        /**
+         * Only write responses while reading, and flush once in {@code channelReadComplete}. With pipelining, all
+         * responses for the requests of one read batch go out in a single syscall.
+         */
+        READ_COMPLETE,
+    }
+
+    /**
+     * HTTP/2 implementation.
+     */
+    public enum Http2Mode {
+        /**
+         * Low-level {@link io.netty.handler.codec.http2.Http2FrameListener}, see {@link RequestHandlerHttp2Frame}.
+         */
+        FRAME_LISTENER,
+        /**
+         * {@link io.netty.handler.codec.http2.Http2FrameCodec} and
+         * {@link io.netty.handler.codec.http2.Http2MultiplexHandler}, with a child channel per stream that runs the
+         * same handlers as HTTP/1.1. This is the API that micronaut uses.
+         */
+        MULTIPLEX,
+    }
+
+    /**
+     * Netty transport, same choices as the {@code transport} dimension of the micronaut test case.
+     */
+    public enum Transport {
+        NIO,
+        EPOLL,
+        IOURING,
+    }
+
+    /**
+     * How connections are accepted and distributed to the event loops.
+     */
+    public enum Acceptor {
+        /**
+         * One server channel per listener. Its event loop accepts all connections and hands them to the event loops
+         * round-robin.
+         */
+        SINGLE,
+        /**
+         * One {@code SO_REUSEPORT} server channel per event loop, so that each loop accepts its own connections and
+         * the kernel balances them. {@code /status} reports the accepted connections per loop to check for skew.
+         */
+        REUSE_PORT,
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.util.ReferenceCountUtil;
+import org.example.shared.StreamingFind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Alternative to {@link RequestHandler} that does not need a {@link io.netty.handler.codec.http.HttpObjectAggregator}.
+ * Request bodies are parsed incrementally using {@link StreamingFind}, and the response is sent as soon as the
+ * needle is found. The remainder of the request body is then discarded.
+ */
+final class StreamingRequestHandler extends ChannelInboundHandlerAdapter {
+    private final RequestHandler requestHandler;
+    private final AgnosticRequestHandler agnosticRequestHandler;
+
+    /**
+     * Search state of the current request, or {@code null} if we are not (or no longer) interested in the body.
+     */
+    private StreamingFind<Result> find;
+
+    StreamingRequestHandler(RequestHandler requestHandler, AgnosticRequestHandler agnosticRequestHandler) {
+        this.requestHandler = requestHandler;
+        this.agnosticRequestHandler = agnosticRequestHandler;
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        ctx.channel().config().setAutoRead(false);
+        ctx.read();
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        if (cause instanceof ReadTimeoutException) {
+            // ignore
+            ctx.close();
+        } else {
+            super.exceptionCaught(ctx, cause);
+        }
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        try {
+            if (msg instanceof HttpRequest request) {
+                onRequest(ctx, request);
+            }
+            if (msg instanceof HttpContent content) {
+                onContent(ctx, content);
+            }
+        } finally {
+            ReferenceCountUtil.release(msg);
+        }
+        // we need the next chunk either way: the rest of this request, or the next request
+        ctx.read();
+    }
+
+    private void onRequest(ChannelHandlerContext ctx, HttpRequest request) {
+        try {
+            FullHttpResponse response = requestHandler.computeResponseHead(ctx, request);
+            if (response == null) {
+                find = agnosticRequestHandler.streamingFind();
+            } else {
+                requestHandler.write(ctx, response);
+            }
+        } catch (Exception e) {
+            fail(ctx, e);
+        }
+    }
+
+    private void onContent(ChannelHandlerContext ctx, HttpContent content) {
+        if (find == null) {
+            return;
+        }
+        try {
+            ByteBuf buf = content.content();
+            boolean done = false;
+            if (buf.isReadable()) {
+                try {
+                    for (ByteBuffer nioBuffer : buf.nioBuffers()) {
+                        done = find.feed(nioBuffer);
+                        if (done) {
+                            break;
+                        }
+                    }
+                } catch (IOException e) {
+                    malformed(ctx);
+                    return;
+                }
+            }
+            if (done || content instanceof LastHttpContent) {
+                Result result;
+                try {
+                    result = find.finish();
+                } catch (IOException e) {
+                    malformed(ctx);
+                    return;
+                }
+                find = null;
+                requestHandler.write(ctx, result == null ?
+                        new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NOT_FOUND) :
+                        RequestHandler.ok(agnosticRequestHandler.serialize(ctx, result)));
+            }
+        } catch (Exception e) {
+            fail(ctx, e);
+        }
+    }
+
+    /**
+     * The client sent a body we can't parse. That is the client's fault, so we don't log it.
+     */
+    private void malformed(ChannelHandlerContext ctx) {
+        find = null;
+        requestHandler.write(ctx, new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.BAD_REQUEST));
+    }
+
+    private void fail(ChannelHandlerContext ctx, Exception e) {
+        e.printStackTrace();
+        find = null;
+        requestHandler.write(ctx, new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.INTERNAL_SERVER_ERROR));
+    }
+}
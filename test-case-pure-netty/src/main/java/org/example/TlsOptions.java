@@ -0,0 +1,92 @@
+package org.example;
+
+import io.netty.handler.ssl.SslProvider;
+import org.example.shared.KeyType;
+
+import java.util.Locale;
+
+/**
+ * TLS options of the HTTPS listener, selected using {@code -Dtls.<option>=<value>} system properties. Pure netty
+ * honors all of them with both providers: session tickets through {@link #configureJdk} for the JDK and through ticket
+ * keys for OpenSSL, and the session cache size on the {@code SslContext}. The vert.x and helidon test cases read the
+ * same properties, but only honor some of them.
+ */
+public final class TlsOptions {
+    private static final String PREFIX = "tls.";
+
+    Provider provider = Provider.JDK;
+    KeyType key = KeyType.RSA;
+    /**
+     * Whether to issue session tickets for stateless resumption.
+     */
+    boolean sessionTickets = true;
+    /**
+     * Maximum number of cached sessions for stateful resumption, or {@code -1} for the provider default.
+     */
+    long sessionCacheSize = -1;
+
+    public static TlsOptions fromSystemProperties() {
+        TlsOptions options = new TlsOptions();
+        options.provider = enumProperty("provider", options.provider);
+        options.key = enumProperty("key", options.key);
+        options.sessionTickets = Boolean.parseBoolean(System.getProperty(PREFIX + "session-tickets", String.valueOf(options.sessionTickets)));
+        options.sessionCacheSize = Long.getLong(PREFIX + "session-cache-size", options.sessionCacheSize);
+        return options;
+    }
+
+    private static <E extends Enum<E>> E enumProperty(String name, E defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * The JDK provider reads its session ticket setting from a system property when it is first initialized, so this
+     * has to be called before any TLS code runs.
+     */
+    void configureJdk() {
+        System.setProperty("jdk.tls.server.enableSessionTicketExtension", String.valueOf(sessionTickets));
+    }
+
+    public TlsOptions provider(Provider provider) {
+        this.provider = provider;
+        return this;
+    }
+
+    public TlsOptions key(KeyType key) {
+        this.key = key;
+        return this;
+    }
+
+    public TlsOptions sessionTickets(boolean sessionTickets) {
+        this.sessionTickets = sessionTickets;
+        return this;
+    }
+
+    public TlsOptions sessionCacheSize(long sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "provider=" + provider + " key=" + key + " session-tickets=" + sessionTickets +
+                " session-cache-size=" + sessionCacheSize;
+    }
+
+    public enum Provider {
+        JDK(SslProvider.JDK),
+        /**
+         * netty-tcnative. The bundled native library is the statically linked BoringSSL build.
+         */
+        OPENSSL(SslProvider.OPENSSL);
+
+        final SslProvider sslProvider;
+
+        Provider(SslProvider sslProvider) {
+            this.sslProvider = sslProvider;
+        }
+    }
+}
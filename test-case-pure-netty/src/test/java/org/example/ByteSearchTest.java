@@ -0,0 +1,63 @@
+package org.example;
+
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class ByteSearchTest {
+    private static Result find(String json) throws IOException {
+        return ByteSearch.find(Unpooled.wrappedBuffer(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void needleLast() throws IOException {
+        Assertions.assertEquals(new Result(1, 1), find("{\"haystack\":[\"foo\",\"bar\",\"bar\"],\"needle\":\"ar\"}"));
+    }
+
+    @Test
+    public void needleFirst() throws IOException {
+        Assertions.assertEquals(new Result(2, 1), find(" { \"needle\" : \"ar\" , \"haystack\" : [ \"foo\" , \"baz\" , \"bar\" ] } "));
+    }
+
+    @Test
+    public void unknownFields() throws IOException {
+        Assertions.assertEquals(new Result(0, 1), find("{\"a\":{\"b\":[1,\"]\",true]},\"haystack\":[\"foo\"],\"c\":null,\"needle\":\"o\"}"));
+    }
+
+    @Test
+    public void charOffset() throws IOException {
+        // U+00E4 is two bytes in UTF-8, U+1F600 is four bytes and two chars
+        Assertions.assertEquals(new Result(0, 4), find("{\"haystack\":[\"\u00e4\uD83D\uDE00xyz\"],\"needle\":\"yz\"}"));
+    }
+
+    @Test
+    public void partialMatch() throws IOException {
+        Assertions.assertEquals(new Result(0, 2), find("{\"haystack\":[\"abaab\"],\"needle\":\"aab\"}"));
+        Assertions.assertNull(find("{\"haystack\":[\"aab\",\"ba\"],\"needle\":\"bb\"}"));
+    }
+
+    @Test
+    public void emptyNeedle() throws IOException {
+        Assertions.assertEquals(new Result(0, 0), find("{\"haystack\":[\"foo\"],\"needle\":\"\"}"));
+    }
+
+    @Test
+    public void notFound() throws IOException {
+        Assertions.assertNull(find("{\"haystack\":[],\"needle\":\"x\"}"));
+        Assertions.assertNull(find("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"x\"}"));
+    }
+
+    @Test
+    public void escapesFallBack() throws IOException {
+        Assertions.assertSame(ByteSearch.FALLBACK, find("{\"haystack\":[\"f\\\"oo\"],\"needle\":\"o\"}"));
+    }
+
+    @Test
+    public void malformed() {
+        Assertions.assertThrows(IOException.class, () -> find("{\"haystack\":[\"foo\"}"));
+        Assertions.assertThrows(IOException.class, () -> find("{\"haystack\":[\"foo\"]}"));
+    }
+}
@@ -1,17 +1,23 @@
 package org.example;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.example.shared.HeaderMode;
+import org.example.shared.KeyType;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.X509TrustManager;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
@@ -47,16 +53,39 @@ public class ServerTest {
 
     @Test
     public void http() throws IOException, InterruptedException {
-        try (HttpServer server = new HttpServer(new RequestHandler())) {
+        try (HttpServer server = new HttpServer(new ServerOptions())) {
             InetSocketAddress addr = server.bindHttp("localhost", 0);
             byte[] bytes = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + addr.getPort() + "/status")).build(), HttpResponse.BodyHandlers.ofByteArray()).body();
             jsonMapper.readTree(bytes);
         }
     }
 
+    @Test
+    public void statusCached() throws IOException, InterruptedException {
+        try (HttpServer server = new HttpServer(new ServerOptions())) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + addr.getPort() + "/status")).build();
+            byte[] first = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+            byte[] second = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+            Assertions.assertArrayEquals(first, second);
+            jsonMapper.readTree(second);
+        }
+    }
+
+    @Test
+    public void statusReusePort() throws IOException, InterruptedException {
+        try (HttpServer server = new HttpServer(new ServerOptions().transport(ServerOptions.Transport.EPOLL).acceptor(ServerOptions.Acceptor.REUSE_PORT).threads(2))) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            byte[] bytes = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + addr.getPort() + "/status")).build(), HttpResponse.BodyHandlers.ofByteArray()).body();
+            JsonNode connectionsPerLoop = jsonMapper.readTree(bytes).get("connectionsPerLoop");
+            Assertions.assertEquals(2, connectionsPerLoop.size());
+            Assertions.assertEquals(1, connectionsPerLoop.get(0).asLong() + connectionsPerLoop.get(1).asLong());
+        }
+    }
+
     @Test
     public void https1() throws IOException, InterruptedException, CertificateException {
-        try (HttpServer server = new HttpServer(new RequestHandler())) {
+        try (HttpServer server = new HttpServer(new ServerOptions())) {
             InetSocketAddress addr = server.bindHttps("localhost", 0);
             HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + addr.getPort() + "/status")).version(HttpClient.Version.HTTP_1_1).build(), HttpResponse.BodyHandlers.ofByteArray());
             Assertions.assertEquals(HttpClient.Version.HTTP_1_1, response.version());
@@ -64,13 +93,255 @@ public class ServerTest {
         }
     }
 
+    @Test
+    public void https1OpenSslEcdsa() throws IOException, InterruptedException, CertificateException {
+        TlsOptions tls = new TlsOptions().provider(TlsOptions.Provider.OPENSSL).key(KeyType.ECDSA).sessionCacheSize(100);
+        try (HttpServer server = new HttpServer(new ServerOptions().tls(tls))) {
+            InetSocketAddress addr = server.bindHttps("localhost", 0);
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + addr.getPort() + "/status")).version(HttpClient.Version.HTTP_1_1).build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(HttpClient.Version.HTTP_1_1, response.version());
+            Assertions.assertEquals("OPENSSL", jsonMapper.readTree(response.body()).get("sslProvider").asText());
+        }
+    }
+
     @Test
     public void https2() throws IOException, InterruptedException, CertificateException {
-        try (HttpServer server = new HttpServer(new RequestHandler())) {
+        try (HttpServer server = new HttpServer(new ServerOptions())) {
             InetSocketAddress addr = server.bindHttps("localhost", 0);
             HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + addr.getPort() + "/status")).version(HttpClient.Version.HTTP_2).build(), HttpResponse.BodyHandlers.ofByteArray());
             Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
             jsonMapper.readTree(response.body());
         }
     }
+
+    @Test
+    public void findAggregate() throws IOException, InterruptedException {
+        find(new ServerOptions().body(ServerOptions.BodyMode.AGGREGATE));
+    }
+
+    @Test
+    public void findStreaming() throws IOException, InterruptedException {
+        find(new ServerOptions().body(ServerOptions.BodyMode.STREAMING));
+    }
+
+    @Test
+    public void findStreamingMalformed() throws IOException, InterruptedException {
+        try (HttpServer server = new HttpServer(new ServerOptions().body(ServerOptions.BodyMode.STREAMING))) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + addr.getPort() + "/search/find"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[1],\"needle\":\"ar\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(400, response.statusCode());
+        }
+    }
+
+    @Test
+    public void findBytes() throws IOException, InterruptedException {
+        find(new ServerOptions().search(ServerOptions.SearchEngine.BYTES));
+    }
+
+    @Test
+    public void findForkJoin() throws IOException, InterruptedException {
+        find(new ServerOptions().dispatch(ServerOptions.Dispatch.FORK_JOIN));
+    }
+
+    @Test
+    public void findNio() throws IOException, InterruptedException {
+        find(new ServerOptions().transport(ServerOptions.Transport.NIO).threads(1));
+    }
+
+    @Test
+    public void findEpoll() throws IOException, InterruptedException {
+        find(new ServerOptions().transport(ServerOptions.Transport.EPOLL));
+    }
+
+    @Test
+    public void findReusePortNio() throws IOException, InterruptedException {
+        find(new ServerOptions().transport(ServerOptions.Transport.NIO).acceptor(ServerOptions.Acceptor.REUSE_PORT));
+    }
+
+    @Test
+    public void findHttp2() throws IOException, InterruptedException, CertificateException {
+        findHttp2(new ServerOptions());
+    }
+
+    @Test
+    public void findHttp2LargeWindow() throws IOException, InterruptedException, CertificateException {
+        findHttp2(new ServerOptions().h2InitialWindowSize(1024 * 1024));
+    }
+
+    @Test
+    public void findHttp2Multiplex() throws IOException, InterruptedException, CertificateException {
+        findHttp2(new ServerOptions().h2(ServerOptions.Http2Mode.MULTIPLEX));
+    }
+
+    @Test
+    public void findHttp2MultiplexStreaming() throws IOException, InterruptedException, CertificateException {
+        findHttp2(new ServerOptions().h2(ServerOptions.Http2Mode.MULTIPLEX).body(ServerOptions.BodyMode.STREAMING));
+    }
+
+    @Test
+    public void findHttp2Malformed() throws IOException, InterruptedException, CertificateException {
+        try (HttpServer server = new HttpServer(new ServerOptions())) {
+            InetSocketAddress addr = server.bindHttps("localhost", 0);
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + addr.getPort() + "/search/find"))
+                    .version(HttpClient.Version.HTTP_2)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[1],\"needle\":\"ar\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
+            Assertions.assertEquals(400, response.statusCode());
+        }
+    }
+
+    @Test
+    public void normalizedHeaders() throws IOException, InterruptedException {
+        try (HttpServer server = new HttpServer(new ServerOptions().headers(HeaderMode.NORMALIZED))) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            HttpResponse<byte[]> response = client.send(findRequest("http://localhost:" + addr.getPort()).build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertNormalizedHeaders(response);
+        }
+    }
+
+    @Test
+    public void normalizedHeadersHttp2() throws IOException, InterruptedException, CertificateException {
+        try (HttpServer server = new HttpServer(new ServerOptions().headers(HeaderMode.NORMALIZED))) {
+            InetSocketAddress addr = server.bindHttps("localhost", 0);
+            HttpResponse<byte[]> response = client.send(findRequest("https://localhost:" + addr.getPort()).version(HttpClient.Version.HTTP_2).build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
+            assertNormalizedHeaders(response);
+        }
+    }
+
+    private static HttpRequest.Builder findRequest(String base) {
+        return HttpRequest.newBuilder(URI.create(base + "/search/find"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"ar\"}"));
+    }
+
+    private static void assertNormalizedHeaders(HttpResponse<byte[]> response) {
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("application/json", response.headers().firstValue("content-type").orElseThrow());
+        Assertions.assertEquals(response.body().length, response.headers().firstValueAsLong("content-length").orElseThrow());
+        Assertions.assertTrue(response.headers().firstValue("date").isPresent());
+        Assertions.assertFalse(response.headers().firstValue("connection").isPresent());
+    }
+
+    @Test
+    public void https2Multiplex() throws IOException, InterruptedException, CertificateException {
+        try (HttpServer server = new HttpServer(new ServerOptions().h2(ServerOptions.Http2Mode.MULTIPLEX))) {
+            InetSocketAddress addr = server.bindHttps("localhost", 0);
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + addr.getPort() + "/status")).version(HttpClient.Version.HTTP_2).build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
+            jsonMapper.readTree(response.body());
+        }
+    }
+
+    private void findHttp2(ServerOptions options) throws IOException, InterruptedException, CertificateException {
+        // large enough to span many DATA frames and exceed the default flow control window
+        StringBuilder body = new StringBuilder("{\"haystack\":[");
+        for (int i = 0; i < 20000; i++) {
+            body.append("\"foo\",");
+        }
+        body.append("\"bar\"],\"needle\":\"ar\"}");
+
+        try (HttpServer server = new HttpServer(options)) {
+            InetSocketAddress addr = server.bindHttps("localhost", 0);
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + addr.getPort() + "/search/find"))
+                    .version(HttpClient.Version.HTTP_2)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals(new Result(20000, 1), jsonMapper.readValue(response.body(), Result.class));
+        }
+    }
+
+    @Test
+    public void pipelinedReadComplete() throws IOException {
+        try (HttpServer server = new HttpServer(new ServerOptions().flush(ServerOptions.FlushMode.READ_COMPLETE));
+             Socket socket = new Socket()) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            socket.connect(addr);
+            socket.setSoTimeout(10_000);
+            String request = "GET /status HTTP/1.1\r\nHost: localhost\r\n\r\n";
+            socket.getOutputStream().write((request + request + request).getBytes(StandardCharsets.US_ASCII));
+
+            // all three responses must arrive, even though there is only one flush per read
+            InputStream in = socket.getInputStream();
+            StringBuilder received = new StringBuilder();
+            byte[] buf = new byte[4096];
+            while (received.toString().split("HTTP/1.1 200 OK", -1).length - 1 < 3) {
+                int n = in.read(buf);
+                Assertions.assertTrue(n != -1, "Connection closed early: " + received);
+                received.append(new String(buf, 0, n, StandardCharsets.US_ASCII));
+            }
+        }
+    }
+
+    @Test
+    public void pipelinedOffloadInOrder() throws IOException {
+        try (HttpServer server = new HttpServer(new ServerOptions().dispatch(ServerOptions.Dispatch.FORK_JOIN));
+             Socket socket = new Socket()) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            socket.connect(addr);
+            socket.setSoTimeout(10_000);
+            StringBuilder haystack = new StringBuilder("[");
+            for (int i = 0; i < 20000; i++) {
+                haystack.append("\"foo\",");
+            }
+            // the first search is slow, the others must still be answered after it
+            String slow = "{\"haystack\":" + haystack + "\"bar\"],\"needle\":\"ar\"}";
+            String fast = "{\"haystack\":[\"bar\"],\"needle\":\"x\"}";
+            String request = rawFindRequest(slow) +
+                    "GET /status HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+                    rawFindRequest(fast) +
+                    "GET /status HTTP/1.1\r\nHost: localhost\r\n\r\n";
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+
+            InputStream in = socket.getInputStream();
+            StringBuilder received = new StringBuilder();
+            byte[] buf = new byte[4096];
+            while (received.toString().split("HTTP/1.1 ", -1).length - 1 < 4 || !received.toString().endsWith("}")) {
+                int n = in.read(buf);
+                Assertions.assertTrue(n != -1, "Connection closed early: " + received);
+                received.append(new String(buf, 0, n, StandardCharsets.US_ASCII));
+            }
+            String[] statuses = received.toString().split("HTTP/1.1 ");
+            Assertions.assertTrue(statuses[1].startsWith("200") && statuses[1].contains("\"listIndex\":20000"), statuses[1]);
+            Assertions.assertTrue(statuses[2].startsWith("200"), statuses[2]);
+            Assertions.assertTrue(statuses[3].startsWith("404"), statuses[3]);
+            Assertions.assertTrue(statuses[4].startsWith("200"), statuses[4]);
+        }
+    }
+
+    private static String rawFindRequest(String body) {
+        return "POST /search/find HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\nContent-Length: " + body.length() + "\r\n\r\n" + body;
+    }
+
+    private void find(ServerOptions options) throws IOException, InterruptedException {
+        try (HttpServer server = new HttpServer(options)) {
+            InetSocketAddress addr = server.bindHttp("localhost", 0);
+            URI uri = URI.create("http://localhost:" + addr.getPort() + "/search/find");
+            HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"ar\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(200, response.statusCode());
+            Assertions.assertEquals(new Result(1, 1), jsonMapper.readValue(response.body(), Result.class));
+
+            response = client.send(HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"x\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(404, response.statusCode());
+
+            response = client.send(HttpRequest.newBuilder(uri)
+                    .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(415, response.statusCode());
+        }
+    }
 }
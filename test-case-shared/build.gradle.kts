@@ -0,0 +1,22 @@
+/**
+ * Code that is shared by the pure netty, vert.x, helidon and micronaut test cases. jackson and netty are compileOnly, so
+ * that each test case keeps the versions of its own framework.
+ */
+plugins {
+    id("java-library")
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    compileOnly("com.fasterxml.jackson.core:jackson-core:2.16.1")
+    compileOnly("io.netty:netty-codec:4.1.104.Final")
+    testImplementation("com.fasterxml.jackson.core:jackson-core:2.16.1")
+    testImplementation("org.junit.jupiter:junit-jupiter-engine:5.9.2")
+}
+
+tasks.withType<Test> {
+    useJUnitPlatform()
+}
@@ -0,0 +1,30 @@
+package org.example.shared;
+
+import io.netty.handler.codec.DateFormatter;
+import io.netty.util.AsciiString;
+
+import java.util.Date;
+
+/**
+ * Value of the {@code date} response header. Like the frameworks do, the formatted date is cached for the rest of the
+ * second, so that {@link HeaderMode#NORMALIZED} measures the header bytes and not the date formatting.
+ */
+public final class DateHeader {
+    private static volatile Cached cached = new Cached(0, AsciiString.EMPTY_STRING);
+
+    private DateHeader() {
+    }
+
+    public static AsciiString value() {
+        long second = System.currentTimeMillis() / 1000;
+        Cached cached = DateHeader.cached;
+        if (cached.second != second) {
+            cached = new Cached(second, AsciiString.of(DateFormatter.format(new Date(second * 1000))));
+            DateHeader.cached = cached;
+        }
+        return cached.value;
+    }
+
+    private record Cached(long second, AsciiString value) {
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.shared;
+
+import java.util.Locale;
+
+/**
+ * Response header set of the pure netty and vert.x test cases, selected using {@code -Dresponse.headers=<mode>}. The
+ * micronaut and spring boot test cases support the same modes, so that the response bytes on the wire are comparable
+ * across frameworks.
+ */
+public enum HeaderMode {
+    /**
+     * What each test case sent before there was a choice: {@code content-type} and {@code content-length}, plus
+     * {@code connection: keep-alive} on HTTP/1.1 for pure netty.
+     */
+    DEFAULT,
+    /**
+     * {@code content-type}, {@code content-length} and {@code date}, on both HTTP/1.1 and HTTP/2.
+     */
+    NORMALIZED;
+
+    public static HeaderMode fromSystemProperties() {
+        String value = System.getProperty("response.headers");
+        if (value == null) {
+            return DEFAULT;
+        }
+        return valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.shared;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Key type of the self-signed certificate of the HTTPS listener, selected using {@code -Dtls.key=<type>}. The key pairs
+ * are bundled as {@code <name>-key.pem} and {@code <name>-cert.pem} resources: generating them at startup needs
+ * bouncycastle, which does not work in a native image.
+ */
+public enum KeyType {
+    RSA("rsa", "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256"),
+    ECDSA("ecdsa", "TLS_ECDHE_ECDSA_WITH_AES_128_GCM_SHA256");
+
+    private final String resourceName;
+    private final String tls12Cipher;
+
+    KeyType(String resourceName, String tls12Cipher) {
+        this.resourceName = resourceName;
+        this.tls12Cipher = tls12Cipher;
+    }
+
+    /**
+     * TLS 1.2 cipher suite matching this key type. For TLS 1.3, we always use {@code TLS_AES_128_GCM_SHA256}.
+     */
+    public String tls12Cipher() {
+        return tls12Cipher;
+    }
+
+    /**
+     * PKCS#8 private key in PEM format.
+     */
+    public byte[] privateKeyPem() {
+        return resource(resourceName + "-key.pem");
+    }
+
+    /**
+     * X.509 certificate for {@code localhost} in PEM format.
+     */
+    public byte[] certificatePem() {
+        return resource(resourceName + "-cert.pem");
+    }
+
+    private static byte[] resource(String name) {
+        try (InputStream stream = KeyType.class.getResourceAsStream("/" + name)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing resource " + name);
+            }
+            return stream.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
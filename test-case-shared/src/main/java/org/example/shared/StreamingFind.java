@@ -0,0 +1,195 @@
+package org.example.shared;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental version of the {@code /search/find} search. The request body is fed chunk by chunk into a non-blocking
+ * jackson parser, so it never has to be aggregated. If the needle is known by the time a haystack string is parsed,
+ * the string is searched immediately and parsing stops at the first match. Strings that arrive before the needle have
+ * to be kept around until the needle is known.
+ *
+ * @param <R> The result type of the test case
+ */
+public final class StreamingFind<R> {
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final ResultFactory<R> resultFactory;
+
+    private State state = State.START;
+    /**
+     * Nesting depth of a value we are skipping, only used in {@link State#SKIP_VALUE}.
+     */
+    private int skipDepth;
+    private String needle;
+    /**
+     * Haystack strings that were parsed before the needle was known.
+     */
+    private List<String> pending = new ArrayList<>();
+    private int listIndex;
+    private R result;
+
+    /**
+     * @param parser A non-blocking parser, from {@code JsonFactory.createNonBlockingByteBufferParser}
+     * @param resultFactory Creates the result of the test case when the needle is found, e.g. {@code Result::new}
+     */
+    public StreamingFind(JsonParser parser, ResultFactory<R> resultFactory) {
+        this.parser = parser;
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+        this.resultFactory = resultFactory;
+    }
+
+    /**
+     * Feed the next chunk of the request body. The buffer is fully consumed before this method returns, so the
+     * caller may release it afterwards.
+     *
+     * @return {@code true} if the search is complete, either because the needle was found or because the document
+     * was fully parsed. Any further input is ignored.
+     */
+    public boolean feed(ByteBuffer chunk) throws IOException {
+        if (isDone()) {
+            return true;
+        }
+        feeder.feedInput(chunk);
+        return advance();
+    }
+
+    /**
+     * Signal the end of the request body.
+     *
+     * @return The search result, or {@code null} if the needle was not found
+     */
+    public R finish() throws IOException {
+        if (!isDone()) {
+            feeder.endOfInput();
+            advance();
+            if (!isDone()) {
+                throw new IOException("Unexpected end of input");
+            }
+        }
+        return result;
+    }
+
+    private boolean isDone() {
+        return state == State.DONE;
+    }
+
+    private boolean advance() throws IOException {
+        while (!isDone()) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.NOT_AVAILABLE) {
+                return false;
+            }
+            if (token == null) {
+                throw new IOException("Unexpected end of input");
+            }
+            onToken(token);
+        }
+        parser.close();
+        return true;
+    }
+
+    private void onToken(JsonToken token) throws IOException {
+        switch (state) {
+            case START -> {
+                expect(token, JsonToken.START_OBJECT);
+                state = State.FIELD;
+            }
+            case FIELD -> {
+                if (token == JsonToken.END_OBJECT) {
+                    state = State.DONE;
+                    return;
+                }
+                expect(token, JsonToken.FIELD_NAME);
+                if (needle != null && parser.currentName().equals("needle")) {
+                    // the pending strings were already searched with the first needle
+                    throw new IOException("Duplicate needle");
+                }
+                state = switch (parser.currentName()) {
+                    case "haystack" -> State.HAYSTACK_START;
+                    case "needle" -> State.NEEDLE;
+                    default -> State.SKIP_VALUE;
+                };
+                skipDepth = 0;
+            }
+            case HAYSTACK_START -> {
+                expect(token, JsonToken.START_ARRAY);
+                state = State.HAYSTACK;
+            }
+            case HAYSTACK -> {
+                if (token == JsonToken.END_ARRAY) {
+                    state = State.FIELD;
+                    return;
+                }
+                expect(token, JsonToken.VALUE_STRING);
+                String s = parser.getText();
+                if (needle == null) {
+                    pending.add(s);
+                } else {
+                    search(s);
+                }
+            }
+            case NEEDLE -> {
+                expect(token, JsonToken.VALUE_STRING);
+                needle = parser.getText();
+                List<String> strings = pending;
+                pending = null;
+                listIndex = 0;
+                for (String s : strings) {
+                    search(s);
+                    if (isDone()) {
+                        return;
+                    }
+                }
+                state = State.FIELD;
+            }
+            case SKIP_VALUE -> {
+                if (token.isStructStart()) {
+                    skipDepth++;
+                } else if (token.isStructEnd()) {
+                    skipDepth--;
+                }
+                if (skipDepth == 0) {
+                    state = State.FIELD;
+                }
+            }
+            case DONE -> throw new AssertionError();
+        }
+    }
+
+    private void search(String s) {
+        int stringIndex = s.indexOf(needle);
+        if (stringIndex != -1) {
+            result = resultFactory.create(listIndex, stringIndex);
+            state = State.DONE;
+        }
+        listIndex++;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected token " + actual + ", expected " + expected);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResultFactory<R> {
+        R create(int listIndex, int stringIndex);
+    }
+
+    private enum State {
+        START,
+        FIELD,
+        HAYSTACK_START,
+        HAYSTACK,
+        NEEDLE,
+        SKIP_VALUE,
+        DONE,
+    }
+}
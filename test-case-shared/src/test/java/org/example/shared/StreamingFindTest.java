@@ -0,0 +1,60 @@
+package org.example.shared;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class StreamingFindTest {
+    record Result(int listIndex, int stringIndex) {
+    }
+
+    private static Result find(String json, int chunkSize) throws IOException {
+        StreamingFind<Result> find = new StreamingFind<>(new JsonFactory().createNonBlockingByteBufferParser(), Result::new);
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            if (find.feed(ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i)))) {
+                break;
+            }
+        }
+        return find.finish();
+    }
+
+    @Test
+    public void needleLast() throws IOException {
+        for (int chunkSize = 1; chunkSize < 64; chunkSize++) {
+            Assertions.assertEquals(new Result(1, 1), find("{\"haystack\":[\"foo\",\"bar\",\"bar\"],\"needle\":\"ar\"}", chunkSize));
+        }
+    }
+
+    @Test
+    public void needleFirst() throws IOException {
+        for (int chunkSize = 1; chunkSize < 64; chunkSize++) {
+            Assertions.assertEquals(new Result(2, 3), find("{\"needle\":\"\u00e4x\",\"extra\":[{}, 1],\"haystack\":[\"foo\",\"bar\",\"baz\u00e4x\"]}", chunkSize));
+        }
+    }
+
+    @Test
+    public void stopsEarly() throws IOException {
+        // the document is truncated after the match, which must not be an error
+        Assertions.assertEquals(new Result(0, 0), find("{\"needle\":\"f\",\"haystack\":[\"foo\",\"b", 100));
+    }
+
+    @Test
+    public void notFound() throws IOException {
+        Assertions.assertNull(find("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"x\"}", 5));
+    }
+
+    @Test
+    public void truncated() {
+        Assertions.assertThrows(IOException.class, () -> find("{\"haystack\":[\"foo\",\"bar\"],\"needle\":", 5));
+    }
+
+    @Test
+    public void duplicateNeedle() {
+        Assertions.assertThrows(IOException.class, () -> find("{\"needle\":\"x\",\"haystack\":[\"foo\"],\"needle\":\"o\"}", 5));
+    }
+}
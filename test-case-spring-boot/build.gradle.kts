@@ -2,6 +2,8 @@ plugins {
     id("java")
     id("application")
     id("org.springframework.boot") version "3.0.4"
+    // runs processAot and packages the generated code, it is only used with -Dspring.aot.enabled=true
+    id("org.springframework.boot.aot") version "3.0.4"
 }
 
 repositories {
@@ -17,13 +19,20 @@ dependencies {
         exclude("org.springframework.boot", "spring-boot-starter-tomcat")
     }
     implementation("org.springframework.boot:spring-boot-starter-jetty:3.2.1")
+    // only used with -Dspring-boot.stack=webflux, spring boot prefers the servlet stack when both are present
+    implementation("org.springframework.boot:spring-boot-starter-webflux:3.2.1")
+    // CRaC API for -Dspring.context.checkpoint, a no-op on JDKs without CRaC
+    implementation("org.crac:crac:1.4.0")
     runtimeOnly("org.eclipse.jetty:jetty-alpn-server:12.0.5")
     runtimeOnly("org.eclipse.jetty:jetty-alpn-java-server:12.0.5")
     runtimeOnly("org.eclipse.jetty.http2:jetty-http2-server:12.0.5")
     runtimeOnly("ch.qos.logback:logback-classic:1.4.14")
     testImplementation("org.junit.jupiter:junit-jupiter-engine:5.9.2")
+    testImplementation("org.junit.jupiter:junit-jupiter-params:5.9.2")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
+    // keys.p12 is not issued for localhost
+    systemProperty("jdk.internal.httpclient.disableHostnameVerification", "true")
 }
\ No newline at end of file
@@ -1,18 +1,22 @@
 package org.example;
 
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.SecureRequestCustomizer;
 import org.eclipse.jetty.server.ServerConnector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
 import org.springframework.boot.web.servlet.server.ServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ConnectorSetup {
     @Bean
-    public ServletWebServerFactory container() {
+    public ServletWebServerFactory container(@Value("${response.headers:default}") String headers) {
         JettyServletWebServerFactory factory = new JettyServletWebServerFactory(8443);
         factory.addServerCustomizers(server -> {
             for (Connector connector : server.getConnectors()) {
@@ -24,6 +28,16 @@ public class ConnectorSetup {
             ServerConnector httpConnector = new ServerConnector(server);
             httpConnector.setPort(8080);
             server.addConnector(httpConnector);
+            if (headers.equals("normalized")) {
+                // jetty sends the date header by default. the server header is only disabled by spring boot on the
+                // connectors it creates, not on the one added above
+                for (Connector connector : server.getConnectors()) {
+                    HttpConfiguration httpConfiguration = connector.getConnectionFactory(HttpConnectionFactory.class).getHttpConfiguration();
+                    httpConfiguration.setSendServerVersion(false);
+                    httpConfiguration.setSendXPoweredBy(false);
+                    httpConfiguration.setSendDateHeader(true);
+                }
+            }
         });
         return factory;
     }
@@ -1,5 +1,6 @@
 package org.example;
 
+import org.springframework.aot.AotDetector;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
@@ -7,7 +8,21 @@ import org.springframework.context.annotation.ComponentScan;
 @SpringBootApplication
 @ComponentScan("org.example")
 public class Main {
+    private static final String DEFAULT_STACK = "mvc-virtual";
+
     public static void main(String[] args) {
-        SpringApplication.run(Main.class, args);
+        // the web stack is selected with -Dspring-boot.stack, which activates the application-<stack>.properties
+        // profile. mvc-virtual needs no extra configuration, it is the default from application.properties
+        application(System.getProperty("spring-boot.stack", DEFAULT_STACK)).run(args);
+    }
+
+    static SpringApplication application(String stack) {
+        // processAot runs with the default stack, and the generated bean definitions ignore the profile at runtime
+        if (AotDetector.useGeneratedArtifacts() && !stack.equals(DEFAULT_STACK)) {
+            throw new IllegalStateException("Spring AOT only supports the " + DEFAULT_STACK + " stack");
+        }
+        SpringApplication application = new SpringApplication(Main.class);
+        application.setAdditionalProfiles(stack);
+        return application;
     }
-}
\ No newline at end of file
+}
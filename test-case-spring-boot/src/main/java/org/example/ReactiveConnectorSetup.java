@@ -0,0 +1,51 @@
+package org.example;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.server.ReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reactor Netty counterpart of {@link ConnectorSetup}: the main server listens on 8443 with TLS, and this adds the
+ * plaintext listener on 8080 for the same handler.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConnectorSetup implements SmartLifecycle {
+    private final WebServer httpServer;
+    private volatile boolean running;
+
+    public ReactiveConnectorSetup(HttpHandler httpHandler) {
+        this.httpServer = new NettyReactiveWebServerFactory(8080).getWebServer(httpHandler);
+    }
+
+    /**
+     * The TLS server. Without this bean, spring boot would pick jetty, which is also on the classpath for the mvc
+     * stacks.
+     */
+    @Bean
+    public ReactiveWebServerFactory reactiveContainer() {
+        return new NettyReactiveWebServerFactory(8443);
+    }
+
+    @Override
+    public void start() {
+        httpServer.start();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        httpServer.stop();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Adds the {@code date} header for {@code -Dresponse.headers=normalized}. Jetty sends it by itself, reactor netty
+ * does not. The formatted date is cached for the rest of the second, like jetty does.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "response.headers", havingValue = "normalized")
+public class ReactiveDateHeaderFilter implements WebFilter {
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US)
+            .withZone(ZoneOffset.UTC);
+
+    private volatile Cached cached = new Cached(0, "");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        exchange.getResponse().getHeaders().set(HttpHeaders.DATE, date());
+        return chain.filter(exchange);
+    }
+
+    private String date() {
+        long second = System.currentTimeMillis() / 1000;
+        Cached cached = this.cached;
+        if (cached.second != second) {
+            cached = new Cached(second, FORMATTER.format(Instant.ofEpochSecond(second)));
+            this.cached = cached;
+        }
+        return cached.value;
+    }
+
+    private record Cached(long second, String value) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.example;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux version of {@link SearchController}.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSearchController {
+    @PostMapping("/search/find")
+    public Mono<ResponseEntity<?>> find(@RequestBody Mono<SearchController.Input> input) {
+        return input.map(i -> SearchController.find(i.haystack(), i.needle()));
+    }
+}
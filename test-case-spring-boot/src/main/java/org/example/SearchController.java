@@ -1,5 +1,6 @@
 package org.example;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -8,13 +9,14 @@ import org.springframework.web.bind.annotation.RestController;
 import java.util.List;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SearchController {
     @PostMapping("/search/find")
     public ResponseEntity<?> find(@RequestBody Input input) {
         return find(input.haystack, input.needle);
     }
 
-    private static ResponseEntity<?> find(List<String> haystack, String needle) {
+    static ResponseEntity<?> find(List<String> haystack, String needle) {
         for (int listIndex = 0; listIndex < haystack.size(); listIndex++) {
             String s = haystack.get(listIndex);
             int stringIndex = s.indexOf(needle);
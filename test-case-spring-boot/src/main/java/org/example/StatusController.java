@@ -15,14 +15,26 @@
  */
 package org.example;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class StatusController {
-    @GetMapping("/status")
-    public Status getStatus() {
-        return new Status();
+    /**
+     * The status does not depend on the request, so it is only serialized once.
+     */
+    private final byte[] status;
+
+    public StatusController(ObjectMapper objectMapper) throws JsonProcessingException {
+        this.status = objectMapper.writeValueAsBytes(new Status());
+    }
+
+    @GetMapping(value = "/status", produces = MediaType.APPLICATION_JSON_VALUE)
+    public byte[] getStatus() {
+        return status;
     }
 
     record Status() {}
@@ -0,0 +1,58 @@
+package org.example;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+
+public class ServerTest {
+    private final HttpClient client = HttpClient.newBuilder()
+            .sslContext(trustAllSslContext())
+            .build();
+
+    public ServerTest() throws GeneralSecurityException {
+    }
+
+    private static SSLContext trustAllSslContext() throws GeneralSecurityException {
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, new X509TrustManager[]{new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        }}, SecureRandom.getInstanceStrong());
+        return sslContext;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"mvc-virtual", "mvc", "webflux"})
+    public void status(String stack) throws IOException, InterruptedException {
+        try (ConfigurableApplicationContext ignored = Main.application(stack).run()) {
+            HttpResponse<byte[]> http = client.send(HttpRequest.newBuilder(URI.create("http://localhost:8080/status")).version(HttpClient.Version.HTTP_1_1).build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(200, http.statusCode());
+            HttpResponse<byte[]> https = client.send(HttpRequest.newBuilder(URI.create("https://localhost:8443/status")).version(HttpClient.Version.HTTP_2).build(), HttpResponse.BodyHandlers.ofByteArray());
+            Assertions.assertEquals(200, https.statusCode());
+            Assertions.assertEquals(HttpClient.Version.HTTP_2, https.version());
+        }
+    }
+}
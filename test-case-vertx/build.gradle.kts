@@ -13,11 +13,17 @@ application {
 }
 
 dependencies {
+    implementation(project(":test-case-shared"))
     implementation("io.vertx:vertx-web:4.5.1")
     implementation("io.vertx:vertx-io_uring-incubator:4.5.1")
     implementation("io.netty.incubator:netty-incubator-transport-native-io_uring:0.0.24.Final:linux-x86_64")
+    implementation("io.netty:netty-tcnative-boringssl-static:2.0.62.Final:linux-x86_64")
     implementation("com.fasterxml.jackson.core:jackson-databind:2.16.1")
-    implementation("org.bouncycastle:bcpkix-jdk18on:1.77")
+    implementation("com.fasterxml.jackson.module:jackson-module-blackbird:2.16.1")
+    implementation("jakarta.json.bind:jakarta.json.bind-api:3.0.0")
+    implementation("org.eclipse:yasson:3.0.3")
+    implementation("com.dslplatform:dsl-json:2.0.2")
+    annotationProcessor("com.dslplatform:dsl-json:2.0.2")
     runtimeOnly("ch.qos.logback:logback-classic:1.4.14")
     testImplementation("org.junit.jupiter:junit-jupiter-engine:5.9.2")
 }
@@ -0,0 +1,26 @@
+package org.example;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Number of connections accepted by each event loop since startup, shared by the vert.x instances of
+ * {@link ServerOptions.Acceptor#REUSE_PORT}. Loops that never got a connection are reported as {@code 0}, so that
+ * skew is visible.
+ */
+final class ConnectionCounts {
+    private final AtomicLongArray counts;
+
+    ConnectionCounts(int loops) {
+        counts = new AtomicLongArray(loops);
+    }
+
+    void accepted(int loop) {
+        counts.incrementAndGet(loop);
+    }
+
+    List<Long> snapshot() {
+        return IntStream.range(0, counts.length()).mapToObj(counts::get).toList();
+    }
+}
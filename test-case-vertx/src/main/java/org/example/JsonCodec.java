@@ -0,0 +1,144 @@
+package org.example;
+
+import com.dslplatform.json.DslJson;
+import com.dslplatform.json.JsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.EncodeException;
+import io.vertx.core.json.Json;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * JSON implementation for the {@code /search/find} bodies. Failures are reported as {@link DecodeException} and
+ * {@link EncodeException}, like {@link Json} does.
+ */
+interface JsonCodec {
+    MyVerticle.Input decode(Buffer body);
+
+    /**
+     * The library that does the work, for the {@code /status} response.
+     */
+    String implementation();
+
+    Buffer encode(MyVerticle.Result result);
+
+    static JsonCodec create(ServerOptions.Codec codec) {
+        return switch (codec) {
+            case DATABIND -> new VertxDatabind();
+            case BLACKBIRD -> new Jackson(JsonMapper.builder().addModule(new BlackbirdModule()).build());
+            case JSONB -> new JsonbCodec(JsonbBuilder.create());
+            case DSL_JSON -> new DslJsonCodec(new DslJson<>(new DslJson.Settings<>().includeServiceLoader()));
+        };
+    }
+
+    private static InputStream stream(Buffer body) {
+        // Buffer.getByteBuf is deprecated. duplicate, because the stream moves the reader index
+        return new ByteBufInputStream(((BufferImpl) body).byteBuf().duplicate());
+    }
+
+    /**
+     * The vert.x default, and what this test case used before there was a choice.
+     */
+    final class VertxDatabind implements JsonCodec {
+        @Override
+        public String implementation() {
+            return Json.CODEC.getClass().getName();
+        }
+
+        @Override
+        public MyVerticle.Input decode(Buffer body) {
+            return Json.decodeValue(body, MyVerticle.Input.class);
+        }
+
+        @Override
+        public Buffer encode(MyVerticle.Result result) {
+            return Json.encodeToBuffer(result);
+        }
+    }
+
+    record Jackson(ObjectMapper mapper) implements JsonCodec {
+        @Override
+        public String implementation() {
+            return mapper.getClass().getName() + " " + mapper.getRegisteredModuleIds();
+        }
+
+        @Override
+        public MyVerticle.Input decode(Buffer body) {
+            try {
+                return mapper.readValue(stream(body), MyVerticle.Input.class);
+            } catch (IOException e) {
+                throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Buffer encode(MyVerticle.Result result) {
+            try {
+                return Buffer.buffer(mapper.writeValueAsBytes(result));
+            } catch (IOException e) {
+                throw new EncodeException("Failed to encode: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    record JsonbCodec(Jsonb jsonb) implements JsonCodec {
+        @Override
+        public String implementation() {
+            return jsonb.getClass().getName();
+        }
+
+        @Override
+        public MyVerticle.Input decode(Buffer body) {
+            try {
+                return jsonb.fromJson(stream(body), MyVerticle.Input.class);
+            } catch (RuntimeException e) {
+                throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Buffer encode(MyVerticle.Result result) {
+            try {
+                return Buffer.buffer(jsonb.toJson(result));
+            } catch (RuntimeException e) {
+                throw new EncodeException("Failed to encode: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    record DslJsonCodec(DslJson<Object> dslJson) implements JsonCodec {
+        @Override
+        public String implementation() {
+            return dslJson.getClass().getName();
+        }
+
+        @Override
+        public MyVerticle.Input decode(Buffer body) {
+            try {
+                return dslJson.deserialize(MyVerticle.Input.class, stream(body));
+            } catch (IOException e) {
+                throw new DecodeException("Failed to decode: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Buffer encode(MyVerticle.Result result) {
+            JsonWriter writer = dslJson.newWriter();
+            try {
+                dslJson.serialize(writer, result);
+            } catch (IOException e) {
+                throw new EncodeException("Failed to encode: " + e.getMessage(), e);
+            }
+            return Buffer.buffer(writer.toByteArray());
+        }
+    }
+}
@@ -1,16 +1,36 @@
 package org.example;
 
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
 import io.vertx.core.VertxOptions;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main {
     public static void main(String[] args) {
+        ServerOptions options = ServerOptions.fromSystemProperties();
+        options.tls.configureJdk();
         int nThreads = Runtime.getRuntime().availableProcessors();
-        Vertx.vertx(new VertxOptions()
-                        .setEventLoopPoolSize(nThreads)
-                        .setPreferNativeTransport(true))
-                .deployVerticle(MyVerticle.class, new DeploymentOptions().setInstances(nThreads)).andThen(r -> {
+        Future<?> deployed = switch (options.acceptor) {
+            case SINGLE -> Vertx.vertx(new VertxOptions()
+                            .setEventLoopPoolSize(nThreads)
+                            .setPreferNativeTransport(true))
+                    .deployVerticle(() -> new MyVerticle(8080, 8443, options), new DeploymentOptions().setInstances(nThreads));
+            case REUSE_PORT -> {
+                ConnectionCounts connectionCounts = new ConnectionCounts(nThreads);
+                List<Future<String>> deployments = new ArrayList<>();
+                for (int i = 0; i < nThreads; i++) {
+                    deployments.add(Vertx.vertx(new VertxOptions()
+                                    .setEventLoopPoolSize(1)
+                                    .setPreferNativeTransport(true))
+                            .deployVerticle(new MyVerticle(8080, 8443, options).reusePort(connectionCounts, i)));
+                }
+                yield Future.all(deployments);
+            }
+        };
+        deployed.andThen(r -> {
             if (r.failed()) {
                 r.cause().printStackTrace();
                 System.exit(0);
@@ -19,4 +39,4 @@ public class Main {
             }
         });
     }
-}
\ No newline at end of file
+}
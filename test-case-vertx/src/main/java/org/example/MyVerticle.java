@@ -1,75 +1,221 @@
 package org.example;
 
+import com.dslplatform.json.CompiledJson;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Future;
+import io.vertx.core.Handler;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.buffer.impl.BufferImpl;
 import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.Json;
-import io.vertx.core.net.SelfSignedCertificate;
+import io.vertx.ext.web.Route;
 import io.vertx.ext.web.Router;
-import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
+import org.example.shared.DateHeader;
+import org.example.shared.HeaderMode;
+import org.example.shared.StreamingFind;
 
+import java.io.IOException;
 import java.util.List;
 
 public class MyVerticle extends AbstractVerticle {
+    private static final CharSequence APPLICATION_JSON = HttpHeaders.createOptimized("application/json");
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     int httpPort;
     int httpsPort;
+    private final ServerOptions options;
+    private final TlsOptions tls;
+    /**
+     * Only set for {@link ServerOptions.Acceptor#REUSE_PORT}.
+     */
+    private ConnectionCounts connectionCounts;
+    private int loop;
+    /**
+     * Serialized {@code /status} body. There is one verticle instance per event loop, and the status does not change,
+     * so this is encoded once in {@link #start} and reused for every request.
+     */
+    private Buffer statusBody;
+    private JsonCodec jsonCodec;
 
     public MyVerticle() {
-        this(8080, 8443);
+        this(8080, 8443, ServerOptions.fromSystemProperties());
     }
 
     public MyVerticle(int httpPort, int httpsPort) {
+        this(httpPort, httpsPort, new ServerOptions());
+    }
+
+    public MyVerticle(int httpPort, int httpsPort, ServerOptions options) {
         this.httpPort = httpPort;
         this.httpsPort = httpsPort;
+        this.options = options;
+        this.tls = options.tls;
+    }
+
+    /**
+     * Bind with {@code SO_REUSEPORT}, and count the accepted connections as event loop number {@code loop}.
+     */
+    MyVerticle reusePort(ConnectionCounts connectionCounts, int loop) {
+        this.connectionCounts = connectionCounts;
+        this.loop = loop;
+        return this;
     }
 
     @Override
     public void start(Promise<Void> startPromise) throws Exception {
-        Router router = Router.router(vertx);
-        router.get("/status").handler(this::status);
-        router.post("/search/find").consumes("application/json").handler(BodyHandler.create()).handler(this::find);
+        jsonCodec = JsonCodec.create(options.json);
+        statusBody = Json.encodeToBuffer(status(null));
 
-        Future<HttpServer> http = vertx.createHttpServer()
-                .requestHandler(router)
+        Handler<HttpServerRequest> requestHandler = switch (options.routing) {
+            case ROUTER -> router();
+            case PLAIN -> this::dispatch;
+        };
+        if (options.headers == HeaderMode.NORMALIZED) {
+            // vert.x sends no date header by itself. set it before routing, so that error responses have it too
+            Handler<HttpServerRequest> handler = requestHandler;
+            requestHandler = request -> {
+                request.response().putHeader(HttpHeaders.DATE, DateHeader.value());
+                handler.handle(request);
+            };
+        }
+
+        boolean reusePort = connectionCounts != null;
+        Future<HttpServer> http = countConnections(vertx.createHttpServer(new HttpServerOptions()
+                        .setReusePort(reusePort)))
+                .requestHandler(requestHandler)
                 .listen(httpPort)
                 .onSuccess(event -> httpPort = event.actualPort());
-        Future<HttpServer> https = vertx.createHttpServer(new HttpServerOptions()
+        Future<HttpServer> https = countConnections(vertx.createHttpServer(new HttpServerOptions()
+                        .setReusePort(reusePort)
                         .setSsl(true)
                         .setUseAlpn(true)
-                        .addEnabledCipherSuite("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256")
+                        .setSslEngineOptions(tls.engineOptions())
+                        .addEnabledCipherSuite(tls.key.tls12Cipher())
                         .addEnabledCipherSuite("TLS_AES_128_GCM_SHA256")
-                        .setKeyCertOptions(SelfSignedCertificate.create().keyCertOptions()))
-                .requestHandler(router)
+                        .setKeyCertOptions(tls.keyCertOptions())))
+                .requestHandler(requestHandler)
                 .listen(httpsPort)
                 .onSuccess(event -> httpsPort = event.actualPort());
 
         http.flatMap(s -> https).map(v -> (Void) null).andThen(startPromise);
     }
 
-    private void status(RoutingContext routingContext) {
-        routingContext.response()
-                .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
-                .end(Json.encode(new Status(
-                        vertx.nettyEventLoopGroup().getClass().getName(),
-                        Json.CODEC.getClass().getName()
-                )));
+    private HttpServer countConnections(HttpServer server) {
+        if (connectionCounts != null) {
+            server.connectionHandler(connection -> connectionCounts.accepted(loop));
+        }
+        return server;
+    }
+
+    private Status status(List<Long> connectionsPerLoop) {
+        return new Status(
+                vertx.nettyEventLoopGroup().getClass().getName(),
+                jsonCodec.implementation(),
+                connectionsPerLoop
+        );
     }
 
-    private void find(RoutingContext routingContext) {
-        Input input = Json.decodeValue(routingContext.body().buffer(), Input.class);
-        Result result = find(input.haystack, input.needle);
+    private Router router() {
+        Router router = Router.router(vertx);
+        router.get("/status").handler(ctx -> sendStatus(ctx.response()));
+        Route find = router.post("/search/find").consumes("application/json");
+        switch (options.body) {
+            case BODY_HANDLER -> find.handler(BodyHandler.create()).handler(ctx -> find(ctx.response(), ctx.body().buffer()));
+            case STREAMING -> find.handler(ctx -> findStreaming(ctx.request()));
+        }
+        return router;
+    }
+
+    /**
+     * Replacement for {@link #router()} that matches method and path directly.
+     */
+    private void dispatch(HttpServerRequest request) {
+        String path = request.path();
+        if (request.method() == HttpMethod.GET && path.equals("/status")) {
+            sendStatus(request.response());
+        } else if (request.method() == HttpMethod.POST && path.equals("/search/find")) {
+            String contentType = request.getHeader(HttpHeaders.CONTENT_TYPE);
+            if (contentType == null || !contentType.startsWith("application/json")) {
+                request.response().setStatusCode(415).end();
+                return;
+            }
+            switch (options.body) {
+                case BODY_HANDLER -> request.body()
+                        .onSuccess(body -> find(request.response(), body))
+                        .onFailure(e -> bodyFailed(request));
+                case STREAMING -> findStreaming(request);
+            }
+        } else {
+            request.response().setStatusCode(404).end();
+        }
+    }
+
+    /**
+     * The body could not be read, e.g. because the connection was reset. Answer if we still can, and close the
+     * connection, because the rest of the body is in an unknown state.
+     */
+    private static void bodyFailed(HttpServerRequest request) {
+        HttpServerResponse response = request.response();
+        if (response.ended() || response.closed()) {
+            request.connection().close();
+        } else {
+            response.setStatusCode(400).end().onComplete(v -> request.connection().close());
+        }
+    }
+
+    private void sendStatus(HttpServerResponse response) {
+        response.putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+                // the counts change, so they can't be cached
+                .end(connectionCounts == null ? statusBody : Json.encodeToBuffer(status(connectionCounts.snapshot())));
+    }
+
+    private void find(HttpServerResponse response, Buffer body) {
+        Input input;
+        try {
+            input = jsonCodec.decode(body);
+        } catch (DecodeException e) {
+            response.setStatusCode(400).end();
+            return;
+        }
+        respond(response, find(input.haystack, input.needle));
+    }
+
+    /**
+     * Feed the body chunks into a {@link StreamingFind} as they arrive. Unlike the pure netty test case, we still
+     * respond only once the request has ended, because vert.x does not expect a response to finish while the request
+     * body is still being received.
+     */
+    private void findStreaming(HttpServerRequest request) {
+        StreamingRequest streamingRequest;
+        try {
+            streamingRequest = new StreamingRequest(request.response());
+        } catch (IOException e) {
+            request.response().setStatusCode(500).end();
+            return;
+        }
+        request.handler(streamingRequest);
+        request.endHandler(streamingRequest::end);
+        // the router pauses the request until a handler wants the body
+        request.resume();
+    }
+
+    private void respond(HttpServerResponse response, Result result) {
         if (result == null) {
-            routingContext.response()
-                    .setStatusCode(404)
+            response.setStatusCode(404)
                     .end();
         } else {
-            routingContext.response()
-                    .putHeader(HttpHeaders.CONTENT_TYPE, "application/json")
-                    .end(Json.encode(result));
+            response.putHeader(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON)
+                    .end(jsonCodec.encode(result));
         }
     }
 
@@ -84,15 +230,58 @@ public class MyVerticle extends AbstractVerticle {
         return null;
     }
 
-    private record Input(List<String> haystack, String needle) {
+    private final class StreamingRequest implements Handler<Buffer> {
+        private final HttpServerResponse response;
+        private final StreamingFind<Result> find;
+        private boolean failed;
+
+        StreamingRequest(HttpServerResponse response) throws IOException {
+            this.response = response;
+            this.find = new StreamingFind<>(JSON_FACTORY.createNonBlockingByteBufferParser(), Result::new);
+        }
+
+        @Override
+        public void handle(Buffer chunk) {
+            if (failed) {
+                return;
+            }
+            try {
+                find.feed(((BufferImpl) chunk).byteBuf().nioBuffer());
+            } catch (IOException e) {
+                // malformed body, ignore the rest of it
+                failed = true;
+            }
+        }
+
+        void end(Void v) {
+            Result result = null;
+            if (!failed) {
+                try {
+                    result = find.finish();
+                } catch (IOException e) {
+                    failed = true;
+                }
+            }
+            if (failed) {
+                response.setStatusCode(400).end();
+            } else {
+                respond(response, result);
+            }
+        }
+    }
+
+    @CompiledJson
+    public record Input(List<String> haystack, String needle) {
     }
 
-    private record Result(int listIndex, int stringIndex) {
+    @CompiledJson
+    public record Result(int listIndex, int stringIndex) {
     }
 
     private record Status(
             String serverSocketChannelImplementation,
-            String jsonCodecImplementation
+            String jsonCodecImplementation,
+            @JsonInclude(JsonInclude.Include.NON_NULL) List<Long> connectionsPerLoop
     ) {
     }
 }
@@ -0,0 +1,140 @@
+package org.example;
+
+import org.example.shared.HeaderMode;
+
+import java.util.Locale;
+
+/**
+ * Runtime options of the server, selected using {@code -Dvertx.<option>=<value>} system properties. TLS options have
+ * their own prefix, see {@link TlsOptions}.
+ */
+public final class ServerOptions {
+    private static final String PREFIX = "vertx.";
+
+    Acceptor acceptor = Acceptor.SINGLE;
+    Codec json = Codec.DATABIND;
+    BodyMode body = BodyMode.BODY_HANDLER;
+    Routing routing = Routing.ROUTER;
+    TlsOptions tls = new TlsOptions();
+    HeaderMode headers = HeaderMode.DEFAULT;
+
+    public static ServerOptions fromSystemProperties() {
+        ServerOptions options = new ServerOptions();
+        options.acceptor = enumProperty("acceptor", options.acceptor);
+        options.json = enumProperty("json", options.json);
+        options.body = enumProperty("body", options.body);
+        options.routing = enumProperty("routing", options.routing);
+        options.tls = TlsOptions.fromSystemProperties();
+        options.headers = HeaderMode.fromSystemProperties();
+        return options;
+    }
+
+    private static <E extends Enum<E>> E enumProperty(String name, E defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    public ServerOptions acceptor(Acceptor acceptor) {
+        this.acceptor = acceptor;
+        return this;
+    }
+
+    public ServerOptions json(Codec json) {
+        this.json = json;
+        return this;
+    }
+
+    public ServerOptions body(BodyMode body) {
+        this.body = body;
+        return this;
+    }
+
+    public ServerOptions routing(Routing routing) {
+        this.routing = routing;
+        return this;
+    }
+
+    public ServerOptions tls(TlsOptions tls) {
+        this.tls = tls;
+        return this;
+    }
+
+    public ServerOptions headers(HeaderMode headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "acceptor=" + acceptor + " json=" + json + " body=" + body + " routing=" + routing +
+                " tls=[" + tls + "] headers=" + headers;
+    }
+
+    /**
+     * How connections are accepted and distributed to the event loops.
+     */
+    public enum Acceptor {
+        /**
+         * One vert.x instance with a verticle per event loop. vert.x shares a single server socket between the
+         * verticles, and hands its connections to them round-robin.
+         */
+        SINGLE,
+        /**
+         * One single-threaded vert.x instance per event loop, each binding its own {@code SO_REUSEPORT} server
+         * socket, so that the kernel balances connections. vert.x shares server sockets within an instance, so
+         * separate instances are the only way to get a socket per loop. {@code /status} reports the accepted
+         * connections per loop to check for skew.
+         */
+        REUSE_PORT,
+    }
+
+    /**
+     * JSON implementation for {@code /search/find} requests and responses, see {@link JsonCodec}.
+     */
+    public enum Codec {
+        /**
+         * vert.x {@link io.vertx.core.json.Json}, backed by jackson-databind.
+         */
+        DATABIND,
+        /**
+         * jackson-databind with the blackbird module, which replaces reflection with generated lambdas. This is the
+         * successor of afterburner for Java 11+.
+         */
+        BLACKBIRD,
+        /**
+         * JSON-B, implemented by yasson.
+         */
+        JSONB,
+        /**
+         * DSL-JSON, with converters generated at compile time.
+         */
+        DSL_JSON,
+    }
+
+    public enum BodyMode {
+        /**
+         * Aggregate the full body before decoding it with the {@link Codec}: {@code BodyHandler} with
+         * {@link Routing#ROUTER}, {@code HttpServerRequest.body()} with {@link Routing#PLAIN}.
+         */
+        BODY_HANDLER,
+        /**
+         * Feed the body chunks from {@code HttpServerRequest.handler} into a non-blocking jackson parser, see
+         * {@link org.example.shared.StreamingFind}. The {@link Codec} is only used for the response.
+         */
+        STREAMING,
+    }
+
+    public enum Routing {
+        /**
+         * vertx-web {@code Router}.
+         */
+        ROUTER,
+        /**
+         * Plain method and path comparison in the request handler, without vertx-web.
+         */
+        PLAIN,
+    }
+}
@@ -0,0 +1,127 @@
+package org.example;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.net.JdkSSLEngineOptions;
+import io.vertx.core.net.KeyCertOptions;
+import io.vertx.core.net.OpenSSLEngineOptions;
+import io.vertx.core.net.PemKeyCertOptions;
+import io.vertx.core.net.SSLEngineOptions;
+import org.example.shared.KeyType;
+
+import java.util.Locale;
+
+/**
+ * TLS options of the HTTPS listener, selected using {@code -Dtls.<option>=<value>} system properties. These are the
+ * same options as in the pure netty test case, but vert.x only honors some of them: the provider and key, session
+ * tickets only with the JDK provider, and of the session cache size only {@code 0} with the OpenSSL provider.
+ * Unsupported combinations are rejected instead of being silently ignored, and the load generator does not run them.
+ */
+public final class TlsOptions {
+    private static final String PREFIX = "tls.";
+
+    Provider provider = Provider.JDK;
+    KeyType key = KeyType.RSA;
+    /**
+     * Whether to issue session tickets for stateless resumption, or {@code null} for the provider default. Only
+     * supported by the JDK provider: vert.x does not expose ticket keys for OpenSSL, and netty only issues tickets once
+     * they are set, so OpenSSL never issues tickets.
+     */
+    Boolean sessionTickets;
+    /**
+     * Maximum number of cached sessions for stateful resumption, or {@code -1} for the provider default. vert.x does
+     * not expose the cache size, so the only supported value is {@code 0} with the OpenSSL provider, which disables its
+     * session cache.
+     */
+    long sessionCacheSize = -1;
+
+    public static TlsOptions fromSystemProperties() {
+        TlsOptions options = new TlsOptions();
+        options.provider = enumProperty("provider", options.provider);
+        options.key = enumProperty("key", options.key);
+        String sessionTickets = System.getProperty(PREFIX + "session-tickets");
+        if (sessionTickets != null) {
+            options.sessionTickets = Boolean.parseBoolean(sessionTickets);
+        }
+        options.sessionCacheSize = Long.getLong(PREFIX + "session-cache-size", options.sessionCacheSize);
+        options.validate();
+        return options;
+    }
+
+    /**
+     * @throws IllegalArgumentException if vert.x can't apply these options, see the field docs
+     */
+    void validate() {
+        if (provider == Provider.OPENSSL && Boolean.TRUE.equals(sessionTickets)) {
+            throw new IllegalArgumentException("vert.x does not support session tickets with the OpenSSL provider");
+        }
+        if (sessionCacheSize != -1 && !(provider == Provider.OPENSSL && sessionCacheSize == 0)) {
+            throw new IllegalArgumentException("vert.x only supports session-cache-size=0 with the OpenSSL provider, not " + sessionCacheSize + " with " + provider);
+        }
+    }
+
+    private static <E extends Enum<E>> E enumProperty(String name, E defaultValue) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * The JDK provider reads its session ticket setting from a system property when it is first initialized, so this
+     * has to be called before any TLS code runs.
+     */
+    void configureJdk() {
+        if (sessionTickets != null) {
+            System.setProperty("jdk.tls.server.enableSessionTicketExtension", String.valueOf(sessionTickets));
+        }
+    }
+
+    SSLEngineOptions engineOptions() {
+        validate();
+        return switch (provider) {
+            case JDK -> new JdkSSLEngineOptions();
+            case OPENSSL -> new OpenSSLEngineOptions().setSessionCacheEnabled(sessionCacheSize != 0);
+        };
+    }
+
+    KeyCertOptions keyCertOptions() {
+        return new PemKeyCertOptions()
+                .setKeyValue(Buffer.buffer(key.privateKeyPem()))
+                .setCertValue(Buffer.buffer(key.certificatePem()));
+    }
+
+    public TlsOptions provider(Provider provider) {
+        this.provider = provider;
+        return this;
+    }
+
+    public TlsOptions key(KeyType key) {
+        this.key = key;
+        return this;
+    }
+
+    public TlsOptions sessionTickets(boolean sessionTickets) {
+        this.sessionTickets = sessionTickets;
+        return this;
+    }
+
+    public TlsOptions sessionCacheSize(long sessionCacheSize) {
+        this.sessionCacheSize = sessionCacheSize;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "provider=" + provider + " key=" + key + " session-tickets=" + (sessionTickets == null ? "default" : sessionTickets) +
+                " session-cache-size=" + sessionCacheSize;
+    }
+
+    public enum Provider {
+        JDK,
+        /**
+         * netty-tcnative. The bundled native library is the statically linked BoringSSL build.
+         */
+        OPENSSL,
+    }
+}
@@ -1,7 +1,11 @@
 package org.example;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import org.example.shared.HeaderMode;
+import org.example.shared.KeyType;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -82,4 +86,130 @@ public class ServerTest {
         Assertions.assertEquals(HttpClient.Version.HTTP_2, response.version());
         jsonMapper.readTree(response.body());
     }
+
+    @Test
+    public void https1OpenSslEcdsa() throws IOException, InterruptedException, ExecutionException {
+        MyVerticle openSslVerticle = new MyVerticle(0, 0, new ServerOptions().tls(new TlsOptions().provider(TlsOptions.Provider.OPENSSL).key(KeyType.ECDSA)));
+        vertx.deployVerticle(openSslVerticle).toCompletionStage().toCompletableFuture().get();
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("https://localhost:" + openSslVerticle.httpsPort + "/status")).version(HttpClient.Version.HTTP_1_1).build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(HttpClient.Version.HTTP_1_1, response.version());
+        jsonMapper.readTree(response.body());
+    }
+
+    @Test
+    public void unsupportedTlsOptions() {
+        // vert.x can't apply these, so they must not silently run with different settings
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TlsOptions().provider(TlsOptions.Provider.OPENSSL).sessionTickets(true).validate());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TlsOptions().provider(TlsOptions.Provider.OPENSSL).sessionCacheSize(20480).validate());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new TlsOptions().sessionCacheSize(0).validate());
+        new TlsOptions().provider(TlsOptions.Provider.OPENSSL).sessionTickets(false).sessionCacheSize(0).validate();
+        new TlsOptions().sessionTickets(false).validate();
+    }
+
+    @Test
+    public void statusReusePort() throws IOException, InterruptedException, ExecutionException {
+        // SO_REUSEPORT needs the native transport
+        VertxOptions vertxOptions = new VertxOptions().setEventLoopPoolSize(1).setPreferNativeTransport(true);
+        Vertx first = Vertx.vertx(vertxOptions);
+        Vertx second = Vertx.vertx(vertxOptions);
+        try {
+            ConnectionCounts connectionCounts = new ConnectionCounts(2);
+            MyVerticle firstVerticle = new MyVerticle(0, 0).reusePort(connectionCounts, 0);
+            first.deployVerticle(firstVerticle).toCompletionStage().toCompletableFuture().get();
+            second.deployVerticle(new MyVerticle(firstVerticle.httpPort, firstVerticle.httpsPort).reusePort(connectionCounts, 1)).toCompletionStage().toCompletableFuture().get();
+            byte[] bytes = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + firstVerticle.httpPort + "/status")).build(), HttpResponse.BodyHandlers.ofByteArray()).body();
+            JsonNode connectionsPerLoop = jsonMapper.readTree(bytes).get("connectionsPerLoop");
+            Assertions.assertEquals(2, connectionsPerLoop.size());
+            Assertions.assertEquals(1, connectionsPerLoop.get(0).asLong() + connectionsPerLoop.get(1).asLong());
+        } finally {
+            first.close().toCompletionStage().toCompletableFuture().get();
+            second.close().toCompletionStage().toCompletableFuture().get();
+        }
+    }
+
+    @Test
+    public void findDatabind() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().json(ServerOptions.Codec.DATABIND));
+    }
+
+    @Test
+    public void findBlackbird() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().json(ServerOptions.Codec.BLACKBIRD));
+    }
+
+    @Test
+    public void findJsonb() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().json(ServerOptions.Codec.JSONB));
+    }
+
+    @Test
+    public void findDslJson() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().json(ServerOptions.Codec.DSL_JSON));
+    }
+
+    @Test
+    public void findStreaming() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().body(ServerOptions.BodyMode.STREAMING));
+    }
+
+    @Test
+    public void findPlain() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().routing(ServerOptions.Routing.PLAIN));
+    }
+
+    @Test
+    public void findPlainStreaming() throws IOException, InterruptedException, ExecutionException {
+        find(new ServerOptions().routing(ServerOptions.Routing.PLAIN).body(ServerOptions.BodyMode.STREAMING));
+    }
+
+    @Test
+    public void statusPlain() throws IOException, InterruptedException, ExecutionException {
+        MyVerticle plainVerticle = new MyVerticle(0, 0, new ServerOptions().routing(ServerOptions.Routing.PLAIN));
+        vertx.deployVerticle(plainVerticle).toCompletionStage().toCompletableFuture().get();
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + plainVerticle.httpPort + "/status")).build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        jsonMapper.readTree(response.body());
+        response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + plainVerticle.httpPort + "/missing")).build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    public void normalizedHeaders() throws IOException, InterruptedException, ExecutionException {
+        MyVerticle normalizedVerticle = new MyVerticle(0, 0, new ServerOptions().headers(HeaderMode.NORMALIZED));
+        vertx.deployVerticle(normalizedVerticle).toCompletionStage().toCompletableFuture().get();
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + normalizedVerticle.httpPort + "/search/find"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"ar\"}"))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        Assertions.assertEquals("application/json", response.headers().firstValue("content-type").orElseThrow());
+        Assertions.assertEquals(response.body().length, response.headers().firstValueAsLong("content-length").orElseThrow());
+        Assertions.assertTrue(response.headers().firstValue("date").isPresent());
+    }
+
+    private void find(ServerOptions options) throws IOException, InterruptedException, ExecutionException {
+        MyVerticle findVerticle = new MyVerticle(0, 0, options);
+        vertx.deployVerticle(findVerticle).toCompletionStage().toCompletableFuture().get();
+        URI uri = URI.create("http://localhost:" + findVerticle.httpPort + "/search/find");
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"ar\"}"))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(200, response.statusCode());
+        JsonNode result = jsonMapper.readTree(response.body());
+        Assertions.assertEquals(1, result.get("listIndex").asInt());
+        Assertions.assertEquals(1, result.get("stringIndex").asInt());
+
+        response = client.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\",\"bar\"],\"needle\":\"x\"}"))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(404, response.statusCode());
+
+        response = client.send(HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"haystack\":[\"foo\""))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        Assertions.assertEquals(400, response.statusCode());
+    }
 }